@@ -1,11 +1,13 @@
 package com.unimelb.swen90007.jspapp.auth.action;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.unimelb.swen90007.jspapp.auth.AuthorizationEnforcer;
+import com.unimelb.swen90007.jspapp.datasource.Page;
+import com.unimelb.swen90007.jspapp.datasource.datamapper.DataMapper;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.FundingApplicationMapper;
 import com.unimelb.swen90007.jspapp.domain.FundingApplication;
+import com.unimelb.swen90007.jspapp.domain.FundingApplicationSummary;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.logging.log4j.LogManager;
 
@@ -13,31 +15,49 @@ import java.util.List;
 
 public class ViewFundingAction extends SecurityBaseAction {
     private String response = null;
+    private final boolean paginated;
+    private final String cursor;
+    private final int limit;
 
     public ViewFundingAction(AuthorizationEnforcer enforcer) {
         super(enforcer);
+        this.paginated = false;
+        this.cursor = null;
+        this.limit = 0;
+    }
+
+    /**
+     * Creates an action listing a single page of funding applications.
+     *
+     * @param enforcer the authorization enforcer
+     * @param cursor   the cursor returned with the previous page, or null for
+     *                 the first page
+     * @param limit    the maximum number of applications to list
+     */
+    public ViewFundingAction(AuthorizationEnforcer enforcer, String cursor, int limit) {
+        super(enforcer);
+        this.paginated = true;
+        this.cursor = cursor;
+        this.limit = limit;
     }
 
     @Override
     protected void performAction() {
         try {
-            FundingApplicationMapper fundingMapper = new FundingApplicationMapper();
-            List<FundingApplication> applications = fundingMapper.findAll();
-
-            JsonArray jsonArray = new JsonArray();
-            for (FundingApplication app : applications) {
-                JsonObject jsonObject = new JsonObject();
-                jsonObject.addProperty("id", app.getId());
-                jsonObject.addProperty("description", app.getDescription());
-                jsonObject.addProperty("clubName", app.getClub().getName());
-                jsonObject.addProperty("amount", app.getAmount());
-                jsonObject.addProperty("status", app.getStatus().toString());
-                jsonObject.addProperty("semester", app.getSemester());
-                jsonArray.add(jsonObject);
-            }
+            FundingApplicationMapper fundingMapper = (FundingApplicationMapper)
+                    DataMapper.getMapper(FundingApplication.class);
+            Page<FundingApplicationSummary> page = paginated ? fundingMapper.findPage(cursor, limit) : null;
+            List<FundingApplicationSummary> applications = paginated ? page.getItems() : fundingMapper.findAll();
 
             Gson gson = new Gson();
-            response = gson.toJson(jsonArray);
+            if (paginated) {
+                JsonObject pageJson = new JsonObject();
+                pageJson.add("applications", gson.toJsonTree(applications));
+                pageJson.addProperty("next", page.getNext());
+                response = gson.toJson(pageJson);
+            } else {
+                response = gson.toJson(applications);
+            }
         } catch (Exception e) {
             LogManager.getLogger().error("Error while listing all funding applications", e);
         }
@@ -0,0 +1,166 @@
+package com.unimelb.swen90007.jspapp.controller;
+
+import com.unimelb.swen90007.jspapp.datasource.ConnectionPool;
+import com.unimelb.swen90007.jspapp.datasource.DatabaseSchema;
+import com.unimelb.swen90007.jspapp.datasource.TypeaheadIndex;
+import com.unimelb.swen90007.jspapp.datasource.datamapper.DataMapper;
+import com.unimelb.swen90007.jspapp.datasource.datamapper.EventMapper;
+import com.unimelb.swen90007.jspapp.datasource.datamapper.StudentClubMapper;
+import com.unimelb.swen90007.jspapp.domain.Event;
+import com.unimelb.swen90007.jspapp.domain.StudentClub;
+import com.unimelb.swen90007.jspapp.util.Config;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+import org.apache.logging.log4j.LogManager;
+
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prepares the application when it is deployed and releases its resources
+ * when it is undeployed.
+ */
+@WebListener
+public class ApplicationListener implements ServletContextListener {
+
+    /**
+     * Whether the application is ready to serve requests.
+     */
+    private static volatile boolean ready;
+
+    /**
+     * How long to wait before warming up again after a failed attempt.
+     */
+    private static final int WARM_UP_RETRY_MS =
+            Math.max(1, Config.getInt("startup.retryMs", 5000));
+
+    /**
+     * Retries the warm up until it succeeds, if the first attempt failed.
+     */
+    private final ScheduledExecutorService warmUpRetry =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "warm-up-retry");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * @return whether the application has started and is not shutting down
+     */
+    public static boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Registers the filters, outermost first, in the order their mappings
+     * are added. Annotated filters run in no specified order, but each of
+     * these relies on the ones around it:
+     * <ul>
+     *     <li>{@link CorsFilter} sets its headers on every response, including
+     *     the rejections of the filters inside it.</li>
+     *     <li>{@link MetricsFilter} records the final status, after
+     *     {@link DeadlineFilter} has replaced it by a 503.</li>
+     *     <li>{@link DeadlineFilter} starts the deadline that bounds the waits
+     *     of the filters inside it.</li>
+     *     <li>{@link RateLimitFilter} and {@link BulkheadFilter} reject
+     *     requests before they use any database resources.</li>
+     *     <li>{@link QueryStatsFilter} and {@link RequestConnectionFilter}
+     *     track and hold the database work of the request.</li>
+     * </ul>
+     */
+    private static void registerFilters(ServletContext context) {
+        List<Class<? extends Filter>> filters = List.of(CorsFilter.class,
+                MetricsFilter.class, DeadlineFilter.class, RateLimitFilter.class,
+                BulkheadFilter.class, QueryStatsFilter.class,
+                RequestConnectionFilter.class);
+        for (Class<? extends Filter> filter : filters) {
+            context.addFilter(filter.getSimpleName(), filter)
+                    .addMappingForUrlPatterns(null, true, "/*");
+        }
+    }
+
+    /**
+     * Registers the filters and warms up the application before any request
+     * is served. If the warm up fails, e.g. because the database is down,
+     * the application stays not ready and the warm up is retried every
+     * "startup.retryMs" milliseconds.
+     *
+     * @param event the servlet context event.
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        long start = System.currentTimeMillis();
+        registerFilters(event.getServletContext());
+        if (!warmUp()) {
+            warmUpRetry.scheduleWithFixedDelay(() -> {
+                if (warmUp()) {
+                    LogManager.getLogger().info("Application ready");
+                    warmUpRetry.shutdown();
+                }
+            }, WARM_UP_RETRY_MS, WARM_UP_RETRY_MS, TimeUnit.MILLISECONDS);
+        }
+        LogManager.getLogger().info((ready ? "Application ready after "
+                : "Application not ready after ")
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Opens the connection pool, brings the database schema up to date and
+     * builds the typeahead index and event columns, then marks the
+     * application as ready if every connection is open and the columns were
+     * loaded.
+     *
+     * @return whether the application is ready
+     */
+    private boolean warmUp() {
+        if (!ConnectionPool.getInstance().reopen()) {
+            return false;
+        }
+        DatabaseSchema.upgrade();
+        EventMapper eventMapper = (EventMapper) DataMapper.getMapper(Event.class);
+        TypeaheadIndex.getInstance().rebuild(eventMapper.findAllTitles(),
+                ((StudentClubMapper) DataMapper.getMapper(StudentClub.class)).findAllNames());
+        if (!eventMapper.loadColumns()) {
+            return false;
+        }
+
+        // Not ready once undeployed, even if a retry was still running
+        ready = !warmUpRetry.isShutdown();
+        return true;
+    }
+
+    /**
+     * Marks the application as not ready and drops the event columns, lets
+     * the requests in progress release their connections, then closes the
+     * pool and deregisters the JDBC drivers loaded by the application.
+     *
+     * @param event the servlet context event.
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        ready = false;
+        warmUpRetry.shutdownNow();
+        ((EventMapper) DataMapper.getMapper(Event.class)).unloadColumns();
+        ConnectionPool.getInstance().shutdown();
+
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        for (Driver driver : Collections.list(DriverManager.getDrivers())) {
+            if (driver.getClass().getClassLoader() == classLoader) {
+                try {
+                    DriverManager.deregisterDriver(driver);
+                } catch (SQLException e) {
+                    LogManager.getLogger().error("Unable to deregister " + driver, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.unimelb.swen90007.jspapp.controller;
+
+import com.unimelb.swen90007.jspapp.metrics.Metrics;
+import com.unimelb.swen90007.jspapp.util.Bulkhead;
+import com.unimelb.swen90007.jspapp.util.Config;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This filter sorts requests into groups and limits how many requests of each
+ * group run at once:
+ * <ul>
+ *     <li>"write": requests other than GET and HEAD, i.e. logins, RSVPs and
+ *     the actions of authenticated users. These have priority and may use
+ *     the connections the pool keeps in reserve.</li>
+ *     <li>"search": full-text event searches, the most expensive reads.</li>
+ *     <li>"browse": every other GET request.</li>
+ * </ul>
+ * The number of permits and the maximum wait of a group are set by
+ * "bulkhead.{group}.permits" and "bulkhead.{group}.maxWaitMs". Requests that
+ * get no permit in time are rejected with a 503, so that a burst of browsing
+ * sheds load instead of blocking ticketing. Readiness, metrics and CORS
+ * preflight requests are never limited.
+ */
+public class BulkheadFilter implements Filter {
+
+    private final Group write = new Group("write", 16, 1000, true);
+    private final Group search = new Group("search", 2, 0, false);
+    private final Group browse = new Group("browse", 8, 50, false);
+
+    /**
+     * A bulkhead and the number of requests it rejected.
+     */
+    private static class Group {
+        private final Bulkhead bulkhead;
+        private final LongAdder rejected;
+
+        private Group(String name, int permits, int maxWaitMillis, boolean priority) {
+            bulkhead = new Bulkhead(name,
+                    Config.getInt("bulkhead." + name + ".permits", permits),
+                    Config.getInt("bulkhead." + name + ".maxWaitMs", maxWaitMillis),
+                    priority);
+            Metrics metrics = Metrics.getInstance();
+            String labels = Metrics.labels("group", name);
+            rejected = metrics.counter("jspapp_bulkhead_rejected_total",
+                    "Requests rejected for lack of a bulkhead permit", labels);
+            metrics.gauge("jspapp_bulkhead_available_permits",
+                    "Bulkhead permits not currently taken", labels,
+                    bulkhead::getAvailablePermits);
+        }
+    }
+
+    /**
+     * Runs the request within the bulkhead of its group, or rejects it if no
+     * permit is available in time.
+     *
+     * @param request  the request object.
+     * @param response the response object.
+     * @param chain    the filter chain.
+     * @throws IOException      if an input or output error occurs during the
+     *                          filter operation.
+     * @throws ServletException if a servlet-specific error occurs during the
+     *                          filter operation.
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        Group group = groupOf((HttpServletRequest) request);
+        if (group == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (!group.bulkhead.enter()) {
+            group.rejected.increment();
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            httpResponse.setHeader("Retry-After", "1");
+            httpResponse.setContentType("text/plain");
+            httpResponse.getWriter().write("Too many " + group.bulkhead.getName()
+                    + " requests, please retry");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            group.bulkhead.exit();
+        }
+    }
+
+    /**
+     * Returns the group of a request, or null if it is not limited.
+     */
+    private Group groupOf(HttpServletRequest request) {
+        String path = request.getServletPath();
+        String method = request.getMethod();
+        if (path.equals("/ready") || path.equals("/metrics")
+                || method.equals("OPTIONS")) {
+            return null;
+        }
+        if (!method.equals("GET") && !method.equals("HEAD")) {
+            return write;
+        }
+        if (path.equals("/events") && "/search".equals(request.getPathInfo())) {
+            return search;
+        }
+        return browse;
+    }
+}
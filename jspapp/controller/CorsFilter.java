@@ -1,7 +1,6 @@
 package com.unimelb.swen90007.jspapp.controller;
 
 import jakarta.servlet.*;
-import jakarta.servlet.annotation.WebFilter;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
@@ -9,7 +8,6 @@ import java.io.IOException;
 /**
  * This filter handles CORS (Cross-Origin Resource Sharing) for all servlets.
  */
-@WebFilter("/*")
 public class CorsFilter implements Filter {
 
     /**
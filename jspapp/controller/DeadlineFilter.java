@@ -0,0 +1,106 @@
+package com.unimelb.swen90007.jspapp.controller;
+
+import com.unimelb.swen90007.jspapp.metrics.Metrics;
+import com.unimelb.swen90007.jspapp.util.Config;
+import com.unimelb.swen90007.jspapp.util.Deadline;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This filter gives every request a deadline, which bounds how long its
+ * database work may wait for a connection and run. The deadline is
+ * "deadline.defaultMs" (10 seconds by default), or "deadline.{name}Ms" for
+ * the endpoints under "/{name}", e.g. "deadline.eventsMs".
+ * <p>
+ * If some of the work of a request was cut short by its deadline, the
+ * response is replaced by a 503 so that clients retry instead of receiving
+ * incomplete data. Servlets check for this with
+ * {@link #respondIfExceeded(HttpServletResponse)} before writing, and this
+ * filter checks again once the request is handled, in case the response has
+ * not been sent yet.
+ */
+public class DeadlineFilter implements Filter {
+
+    private static final String MESSAGE = "Request could not be completed in time";
+
+    private final LongAdder exceeded = Metrics.getInstance().counter(
+            "jspapp_deadline_exceeded_total",
+            "Requests cut short by their deadline", "");
+
+    /**
+     * Sets the deadline of the request and checks whether it was exceeded.
+     *
+     * @param request  the request object.
+     * @param response the response object.
+     * @param chain    the filter chain.
+     * @throws IOException      if an input or output error occurs during the
+     *                          filter operation.
+     * @throws ServletException if a servlet-specific error occurs during the
+     *                          filter operation.
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        Deadline.start(timeoutOf((HttpServletRequest) request));
+        try {
+            chain.doFilter(request, response);
+
+            if (Deadline.isExceeded()) {
+                exceeded.increment();
+                respondIfExceeded((HttpServletResponse) response);
+            }
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+    /**
+     * Replaces the response by a 503 if some of the work of the request was
+     * cut short by its deadline. Servlets call this before writing a response
+     * built from database reads, since the response is usually committed by
+     * the time this filter gets it back. Headers already set, e.g. by
+     * {@link CorsFilter}, are kept.
+     *
+     * @param response the response of the current request.
+     * @return whether the 503 was sent, or the response was already committed
+     * and nothing more should be written
+     * @throws IOException if an I/O error occurs while writing the response.
+     */
+    static boolean respondIfExceeded(HttpServletResponse response) throws IOException {
+        if (!Deadline.isExceeded()) {
+            return false;
+        }
+        if (!response.isCommitted()) {
+            response.resetBuffer();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            response.setContentType("text/plain");
+            try {
+                response.getWriter().write(MESSAGE);
+            } catch (IllegalStateException e) {
+                // The servlet already opened the output stream
+                response.getOutputStream().write(MESSAGE.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the time allowed for a request, in milliseconds.
+     */
+    private static long timeoutOf(HttpServletRequest request) {
+        int defaultTimeout = Config.getInt("deadline.defaultMs", 10000);
+        String path = request.getServletPath();
+        if (path == null || path.length() < 2) {
+            return defaultTimeout;
+        }
+        int end = path.indexOf('/', 1);
+        String name = end < 0 ? path.substring(1) : path.substring(1, end);
+        return Config.getInt("deadline." + name + "Ms", defaultTimeout);
+    }
+}
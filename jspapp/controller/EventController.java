@@ -7,9 +7,12 @@ import com.google.gson.JsonParseException;
 import com.unimelb.swen90007.jspapp.auth.*;
 import com.unimelb.swen90007.jspapp.auth.action.CreateEventAction;
 import com.unimelb.swen90007.jspapp.auth.action.ModifyEventAction;
+import com.unimelb.swen90007.jspapp.datasource.EventCache;
+import com.unimelb.swen90007.jspapp.datasource.Page;
+import com.unimelb.swen90007.jspapp.datasource.TypeaheadIndex;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.DataMapper;
+import com.unimelb.swen90007.jspapp.datasource.datamapper.EventFilter;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.EventMapper;
-import com.unimelb.swen90007.jspapp.datasource.datamapper.StudentClubMapper;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.UserAuthorizationMapper;
 import com.unimelb.swen90007.jspapp.domain.*;
 import jakarta.servlet.ServletException;
@@ -20,6 +23,7 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -32,6 +36,7 @@ import java.util.stream.Collectors;
 @WebServlet("/events/*")
 public class EventController extends HttpServlet {
 
+    private static final int SUGGESTION_LIMIT = 10;
     private final Gson gson = new Gson();
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
     private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm");
@@ -41,8 +46,22 @@ public class EventController extends HttpServlet {
      *
      * <p>
      * If the request path is "/events", it retrieves and returns all events.
+     * If a paging ("cursor", "limit") or filtering ("from", "to", "club",
+     * "venueType", "cancelled", "hasCapacity") parameter is given, it instead
+     * returns one page of the matching events ordered by date and time, with
+     * the cursor of the following page in "next" (absent on the last page).
+     * If the request path is "/events/search", it returns the events best
+     * matching the "q" parameter, most relevant first.
+     * If the request path is "/events/suggest", it returns the event titles and
+     * club names with a word starting with the "q" parameter, without querying
+     * the database.
+     * If the request path is "/events/upcoming", it returns the next events
+     * that are not cancelled, soonest first, optionally only those of a club
+     * ("club") or before a time ("to", e.g. the end of the week).
      * If the request path is "/events/{id}", it retrieves and returns a specific
-     * event by ID.
+     * event by ID. The optional "fields" parameter, a comma-separated subset
+     * of {@link EventMapper#FIELDS}, restricts which fields are loaded and
+     * returned.
      * </p>
      *
      * @param request  the HttpServletRequest object containing the request data.
@@ -56,66 +75,307 @@ public class EventController extends HttpServlet {
 
         String pathInfo = request.getPathInfo();
 
-        if (pathInfo == null || pathInfo.equals("/")) {
-            // Retrieve all events
-            List<Event> events = ((EventMapper) DataMapper.getMapper(Event.class)).findAll();
-
-            String responseJson = gson
-                    .toJson(events.stream().map(this::convertEventToMap).collect(Collectors.toList()));
-            respondWithJson(response, responseJson);
+        if ((pathInfo == null || pathInfo.equals("/")) && isPageRequest(request)) {
+            // Retrieve a page of matching events
+            handleGetEventPage(request, response);
+        } else if (pathInfo == null || pathInfo.equals("/")) {
+            // Retrieve all events, rendering them only if not already cached
+            EventCache cache = EventCache.getInstance();
+            byte[] body = cache.getListing(EventCache.ALL_EVENTS);
+            if (body == null) {
+                long generation = cache.getGeneration();
+                List<EventSummary> events = ((EventMapper) DataMapper.getMapper(Event.class)).findAll();
+                body = gson.toJson(events).getBytes(StandardCharsets.UTF_8);
+                cache.putListing(generation, EventCache.ALL_EVENTS, body);
+            }
+            respondWithJson(response, body);
         } else if (pathInfo.startsWith("/student")) {
             // Retrieve events by student ID
             handleGetEvents(request, response);
+        } else if (pathInfo.equals("/search")) {
+            // Retrieve the events best matching a search query
+            handleSearchEvents(request, response);
+        } else if (pathInfo.equals("/suggest")) {
+            // Complete the search box from the in-memory index
+            handleSuggest(request, response);
+        } else if (pathInfo.equals("/upcoming")) {
+            // Retrieve the next events from the in-memory index
+            handleGetUpcomingEvents(request, response);
         } else {
             // Retrieve event by ID
+            Long eventId;
             try {
-                Long eventId = Long.parseLong(pathInfo.substring(1));
-                List<Event> events = ((EventMapper) DataMapper.getMapper(Event.class)).findAll();
-                Optional<Event> eventOpt = events.stream()
-                        .filter(event -> event.getId().equals(eventId))
-                        .findFirst();
-
-                if (eventOpt.isPresent()) {
-                    Event event = eventOpt.get();
-                    String responseJson = gson.toJson(convertEventToMap(event));
-                    respondWithJson(response, responseJson);
-                } else {
-                    respondWithError(response, HttpServletResponse.SC_NOT_FOUND, "Event not found");
-                }
+                eventId = Long.parseLong(pathInfo.substring(1));
             } catch (NumberFormatException e) {
                 respondWithError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid event ID format");
+                return;
             }
+
+            // Restrict the response to the requested fields, if any
+            String fieldsParam = request.getParameter("fields");
+            Set<String> fields = EventMapper.FIELDS;
+            if (fieldsParam != null && !fieldsParam.isBlank()) {
+                fields = new HashSet<>();
+                for (String field : fieldsParam.split(",")) {
+                    fields.add(field.trim());
+                }
+                if (!EventMapper.FIELDS.containsAll(fields)) {
+                    respondWithError(response, HttpServletResponse.SC_BAD_REQUEST, "Unknown field requested");
+                    return;
+                }
+            }
+
+            // Only the full representation is cached
+            boolean fullView = fields.size() == EventMapper.FIELDS.size();
+            EventCache cache = EventCache.getInstance();
+            byte[] body = fullView ? cache.getEvent(eventId) : null;
+            if (body == null) {
+                long generation = cache.getGeneration();
+                Optional<Event> eventOpt = ((EventMapper) DataMapper.getMapper(Event.class))
+                        .findFields(eventId, fields);
+
+                if (eventOpt.isEmpty()) {
+                    respondWithError(response, HttpServletResponse.SC_NOT_FOUND, "Event not found");
+                    return;
+                }
+                body = gson.toJson(convertEventToMap(eventOpt.get(), fields)).getBytes(StandardCharsets.UTF_8);
+                if (fullView) {
+                    cache.putEvent(generation, eventId, body);
+                }
+            }
+            respondWithJson(response, body);
         }
     }
 
+    /**
+     * Responds with a page of events ordered by date and time, along with the
+     * cursor of the following page.
+     *
+     * @param request  the request, with optional "cursor" and "limit" parameters.
+     * @param response the response to write the page to.
+     * @throws IOException if an I/O error occurs while writing the response.
+     */
+    private void handleGetEventPage(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String cursor = request.getParameter("cursor");
+        int limit;
+        EventFilter filter;
+        try {
+            limit = Page.parseLimit(request.getParameter("limit"));
+            filter = parseEventFilter(request);
+        } catch (IllegalArgumentException e) {
+            respondWithError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        EventCache cache = EventCache.getInstance();
+        String key = "page:" + filter.toKey() + ":" + cursor + ":" + limit;
+        byte[] body = cache.getListing(key);
+        if (body == null) {
+            long generation = cache.getGeneration();
+            Page<EventSummary> page;
+            try {
+                page = ((EventMapper) DataMapper.getMapper(Event.class)).findPage(filter, cursor, limit);
+            } catch (IllegalArgumentException e) {
+                respondWithError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+                return;
+            }
+
+            Map<String, Object> pageMap = new HashMap<>();
+            pageMap.put("events", page.getItems());
+            pageMap.put("next", page.getNext());
+            body = gson.toJson(pageMap).getBytes(StandardCharsets.UTF_8);
+            cache.putListing(generation, key, body);
+        }
+        respondWithJson(response, body);
+    }
+
+    /**
+     * Responds with the events best matching the "q" parameter, most relevant
+     * first. At most "limit" events are returned.
+     *
+     * @param request  the request, with "q" and optional "limit" parameters.
+     * @param response the response to write the events to.
+     * @throws IOException if an I/O error occurs while writing the response.
+     */
+    private void handleSearchEvents(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String query = request.getParameter("q");
+        if (query == null || query.isBlank()) {
+            respondWithError(response, HttpServletResponse.SC_BAD_REQUEST, "Missing search query");
+            return;
+        }
+        int limit;
+        try {
+            limit = Page.parseLimit(request.getParameter("limit"));
+        } catch (IllegalArgumentException e) {
+            respondWithError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        List<EventSummary> events = ((EventMapper) DataMapper.getMapper(Event.class)).findBySearch(query, limit);
+        respondWithJson(response, gson.toJson(events));
+    }
+
+    /**
+     * Responds with the event titles and club names with a word starting with
+     * the "q" parameter. At most "limit" suggestions are returned, 10 by
+     * default.
+     *
+     * @param request  the request, with "q" and optional "limit" parameters.
+     * @param response the response to write the suggestions to.
+     * @throws IOException if an I/O error occurs while writing the response.
+     */
+    private void handleSuggest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String query = request.getParameter("q");
+        if (query == null) {
+            respondWithError(response, HttpServletResponse.SC_BAD_REQUEST, "Missing search query");
+            return;
+        }
+        int limit = SUGGESTION_LIMIT;
+        try {
+            if (request.getParameter("limit") != null) {
+                limit = Page.parseLimit(request.getParameter("limit"));
+            }
+        } catch (IllegalArgumentException e) {
+            respondWithError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        List<Map<String, Object>> suggestions = new ArrayList<>();
+        for (TypeaheadIndex.Suggestion suggestion : TypeaheadIndex.getInstance().suggest(query, limit)) {
+            Map<String, Object> suggestionMap = new HashMap<>();
+            suggestionMap.put("type", suggestion.getKind() == TypeaheadIndex.Kind.EVENT ? "event" : "club");
+            suggestionMap.put("id", suggestion.getId());
+            suggestionMap.put("text", suggestion.getText());
+            suggestions.add(suggestionMap);
+        }
+        respondWithJson(response, gson.toJson(suggestions));
+    }
+
+    /**
+     * Responds with the next events that are not cancelled, soonest first. At
+     * most "limit" events are returned. The optional "club" parameter is a
+     * club ID and "to" is in milliseconds since epoch.
+     *
+     * @param request  the request, with optional "club", "to" and "limit"
+     *                 parameters.
+     * @param response the response to write the events to.
+     * @throws IOException if an I/O error occurs while writing the response.
+     */
+    private void handleGetUpcomingEvents(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        int limit;
+        Long clubId = null;
+        Long to = null;
+        try {
+            limit = Page.parseLimit(request.getParameter("limit"));
+            if (request.getParameter("club") != null) {
+                clubId = Long.parseLong(request.getParameter("club"));
+            }
+            if (request.getParameter("to") != null) {
+                to = Long.parseLong(request.getParameter("to"));
+            }
+        } catch (NumberFormatException e) {
+            respondWithError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid filter parameter");
+            return;
+        } catch (IllegalArgumentException e) {
+            respondWithError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        List<EventSummary> events = ((EventMapper) DataMapper.getMapper(Event.class))
+                .findUpcoming(clubId, to, limit);
+        respondWithJson(response, gson.toJson(events));
+    }
+
+    /**
+     * Returns whether a listing request asks for a page of events rather than
+     * every event, i.e. whether it has any paging or filtering parameter.
+     *
+     * @param request the listing request.
+     * @return {@code true} if a page of events should be returned.
+     */
+    private boolean isPageRequest(HttpServletRequest request) {
+        for (String param : new String[]{"cursor", "limit", "from", "to", "club",
+                "venueType", "cancelled", "hasCapacity"}) {
+            if (request.getParameter(param) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses the event filter parameters of a listing request. "from" and "to"
+     * are in milliseconds since epoch, "club" is a club ID, "venueType" is
+     * "online" or "in-person", and "cancelled" and "hasCapacity" are booleans.
+     *
+     * @param request the listing request.
+     * @return the filter described by the request.
+     * @throws IllegalArgumentException if a parameter is malformed.
+     */
+    private EventFilter parseEventFilter(HttpServletRequest request) {
+        EventFilter filter = new EventFilter();
+        try {
+            String from = request.getParameter("from");
+            String to = request.getParameter("to");
+            String club = request.getParameter("club");
+            if (from != null) filter.setFrom(Long.parseLong(from));
+            if (to != null) filter.setTo(Long.parseLong(to));
+            if (club != null) filter.setClubId(Long.parseLong(club));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid filter parameter", e);
+        }
+
+        String venueType = request.getParameter("venueType");
+        if (venueType != null) {
+            if (venueType.equalsIgnoreCase(VenueType.ONLINE.getPrettyString())) {
+                filter.setVenueType(VenueType.ONLINE);
+            } else if (venueType.equalsIgnoreCase(VenueType.IN_PERSON.getPrettyString())) {
+                filter.setVenueType(VenueType.IN_PERSON);
+            } else {
+                throw new IllegalArgumentException("Invalid venue type");
+            }
+        }
+        String cancelled = request.getParameter("cancelled");
+        if (cancelled != null) {
+            filter.setCancelled(parseBoolean(cancelled));
+        }
+        String hasCapacity = request.getParameter("hasCapacity");
+        if (hasCapacity != null) {
+            filter.setHasCapacity(parseBoolean(hasCapacity));
+        }
+        return filter;
+    }
+
+    private boolean parseBoolean(String value) {
+        if (value.equalsIgnoreCase("true")) return true;
+        if (value.equalsIgnoreCase("false")) return false;
+        throw new IllegalArgumentException("Invalid filter parameter");
+    }
+
     private void handleGetEvents(HttpServletRequest request, HttpServletResponse response) throws IOException {
         // Get the studentId from the request
         Long studentID = Long.parseLong(request.getParameter("studentID"));
 
-        // Get the clubs from the database
-        StudentClubMapper studentClubMapper = (StudentClubMapper) DataMapper.getMapper(StudentClub.class);
-        List<StudentClub> clubs = studentClubMapper.findByStudent(studentID);
+        // Get the events of the student's clubs, with their venues
+        List<Event> events = ((EventMapper) DataMapper.getMapper(Event.class))
+                .findByMember(studentID);
 
         // Create a list of JSON objects containing event information
         List<JsonObject> eventInfos = new ArrayList<>();
-        for (StudentClub club : clubs) {
-            // Get the events of the club
-            List<Event> events = club.getEvents();
-
-            for (Event event : events) {
-                JsonObject eventInfo = new JsonObject();
-                Venue venue = event.getVenue();
-                eventInfo.addProperty("id", event.getId());
-                eventInfo.addProperty("name", event.getTitle());
-                eventInfo.addProperty("date", dateFormat.format(new Date(event.getDateTime())));
-                eventInfo.addProperty("time", timeFormat.format(new Date(event.getDateTime())));
-                eventInfo.addProperty("attendees", event.getAttendees());
-                eventInfo.addProperty("location", venue.getType().getPrettyString());
-                eventInfo.addProperty("address", venue.getAddress());
-                eventInfo.addProperty("capacity", venue.getCapacity());
-                eventInfo.addProperty("description", event.getDescription());
-                eventInfos.add(eventInfo);
-            }
+        for (Event event : events) {
+            JsonObject eventInfo = new JsonObject();
+            Venue venue = event.getVenue();
+            eventInfo.addProperty("id", event.getId());
+            eventInfo.addProperty("name", event.getTitle());
+            eventInfo.addProperty("date", dateFormat.format(new Date(event.getDateTime())));
+            eventInfo.addProperty("time", timeFormat.format(new Date(event.getDateTime())));
+            eventInfo.addProperty("attendees", event.getAttendees());
+            eventInfo.addProperty("location", venue.getType().getPrettyString());
+            eventInfo.addProperty("address", venue.getAddress());
+            eventInfo.addProperty("capacity", venue.getCapacity());
+            eventInfo.addProperty("description", event.getDescription());
+            eventInfos.add(eventInfo);
         }
 
         // Convert the list of eventInfos to JSON and send it in the response
@@ -377,37 +637,65 @@ public class EventController extends HttpServlet {
     }
 
     /**
-     * Converts an event to a map containing the required fields.
+     * Converts an event to a map containing only the given fields. Fields that
+     * are not requested are never read, so they are not lazily loaded.
      *
-     * @param event the event to convert.
-     * @return a map containing the event's fields.
+     * @param event  the event to convert.
+     * @param fields the fields to include, a subset of {@link EventMapper#FIELDS}.
+     * @return a map containing the requested fields of the event.
      */
-    private Map<String, Object> convertEventToMap(Event event) {
+    private Map<String, Object> convertEventToMap(Event event, Set<String> fields) {
         Map<String, Object> eventMap = new HashMap<>();
-        eventMap.put("id", event.getId());
-        eventMap.put("title", event.getTitle());
-        eventMap.put("dateTime", event.getDateTime());
-        eventMap.put("host", event.getClub().getName());
-        eventMap.put("location", event.getVenue().getAddress());
-        eventMap.put("attenders", event.getAttendees());
-        eventMap.put("description", event.getDescription());
+        if (fields.contains("id")) eventMap.put("id", event.getId());
+        if (fields.contains("title")) eventMap.put("title", event.getTitle());
+        if (fields.contains("dateTime")) eventMap.put("dateTime", event.getDateTime());
+        if (fields.contains("host")) eventMap.put("host", event.getClub().getName());
+        if (fields.contains("location")) eventMap.put("location", event.getVenue().getAddress());
+        if (fields.contains("attenders")) eventMap.put("attenders", event.getAttendees());
+        if (fields.contains("description")) eventMap.put("description", event.getDescription());
         return eventMap;
     }
 
     /**
      * Sends a JSON response to the client.
+     * A 503 is sent instead if the request exceeded its deadline, since the
+     * response may have been built from incomplete data.
      *
      * @param response the HttpServletResponse object for sending the response data.
      * @param json     the JSON string to send in the response.
      * @throws IOException if an I/O error occurs while writing the response.
      */
     private void respondWithJson(HttpServletResponse response, String json) throws IOException {
+        if (DeadlineFilter.respondIfExceeded(response)) {
+            return;
+        }
         response.setContentType("application/json");
         response.getWriter().write(json);
     }
 
+    /**
+     * Sends a pre-serialized JSON response to the client.
+     * A 503 is sent instead if the request exceeded its deadline, since the
+     * response may have been built from incomplete data.
+     *
+     * @param response the HttpServletResponse object for sending the response data.
+     * @param body     the UTF-8 encoded JSON to send in the response.
+     * @throws IOException if an I/O error occurs while writing the response.
+     */
+    private void respondWithJson(HttpServletResponse response, byte[] body) throws IOException {
+        if (DeadlineFilter.respondIfExceeded(response)) {
+            return;
+        }
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
     /**
      * Sends an error response to the client.
+     * A 503 is sent instead if the request exceeded its deadline, since the
+     * response may have been built from incomplete data.
      *
      * @param response   the HttpServletResponse object for sending the response
      *                   data.
@@ -416,6 +704,9 @@ public class EventController extends HttpServlet {
      * @throws IOException if an I/O error occurs while writing the response.
      */
     private void respondWithError(HttpServletResponse response, int statusCode, String message) throws IOException {
+        if (DeadlineFilter.respondIfExceeded(response)) {
+            return;
+        }
         response.setStatus(statusCode);
         response.setContentType("text/plain");
         response.getWriter().write(message);
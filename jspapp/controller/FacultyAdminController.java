@@ -5,13 +5,16 @@ import com.google.gson.JsonObject;
 import com.unimelb.swen90007.jspapp.auth.*;
 import com.unimelb.swen90007.jspapp.auth.action.CreateEventAction;
 import com.unimelb.swen90007.jspapp.auth.action.ViewFundingAction;
+import com.unimelb.swen90007.jspapp.datasource.Page;
 import com.unimelb.swen90007.jspapp.datasource.UnitOfWork;
+import com.unimelb.swen90007.jspapp.datasource.datamapper.DataMapper;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.FacultyAdminMapper;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.FundingApplicationMapper;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.UserAuthorizationMapper;
 import com.unimelb.swen90007.jspapp.domain.FacultyAdmin;
 import com.unimelb.swen90007.jspapp.domain.FundingApplication;
 import com.unimelb.swen90007.jspapp.domain.FundingStatus;
+import com.unimelb.swen90007.jspapp.util.Cursor;
 import com.unimelb.swen90007.jspapp.util.TokenGenerator;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -111,7 +114,8 @@ public class FacultyAdminController extends HttpServlet {
     private void handleReviewFundingApplication(HttpServletRequest request, HttpServletResponse response)
             throws IOException {
         try {
-            FundingApplicationMapper fundingMapper = new FundingApplicationMapper();
+            FundingApplicationMapper fundingMapper = (FundingApplicationMapper)
+                    DataMapper.getMapper(FundingApplication.class);
             JsonObject jsonObject = getRequestBody(request);
             Long applicationId = jsonObject.get("applicationId").getAsLong();
 
@@ -139,7 +143,8 @@ public class FacultyAdminController extends HttpServlet {
     private void handleApproveFundingApplication(HttpServletRequest request, HttpServletResponse response)
             throws IOException {
         try {
-            FundingApplicationMapper fundingMapper = new FundingApplicationMapper();
+            FundingApplicationMapper fundingMapper = (FundingApplicationMapper)
+                    DataMapper.getMapper(FundingApplication.class);
             JsonObject jsonObject = getRequestBody(request);
             Long applicationId = jsonObject.get("applicationId").getAsLong();
 
@@ -170,7 +175,8 @@ public class FacultyAdminController extends HttpServlet {
     private void handleRejectFundingApplication(HttpServletRequest request, HttpServletResponse response)
             throws IOException {
         try {
-            FundingApplicationMapper fundingMapper = new FundingApplicationMapper();
+            FundingApplicationMapper fundingMapper = (FundingApplicationMapper)
+                    DataMapper.getMapper(FundingApplication.class);
             JsonObject jsonObject = getRequestBody(request);
             Long applicationId = jsonObject.get("applicationId").getAsLong();
 
@@ -212,9 +218,26 @@ public class FacultyAdminController extends HttpServlet {
                 return;
             }
 
+            // Validate the optional page parameters
+            String cursor = request.getParameter("cursor");
+            String limitParam = request.getParameter("limit");
+            boolean paginated = cursor != null || limitParam != null;
+            int limit = 0;
+            if (paginated) {
+                try {
+                    limit = Page.parseLimit(limitParam);
+                    if (cursor != null) {
+                        Cursor.decode(cursor, 1);
+                    }
+                } catch (IllegalArgumentException e) {
+                    response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+                    return;
+                }
+            }
+
             // Get the view funding action
             ViewFundingAction viewFundingAction =
-                    getViewFundingAction(currentStudentIdOpt);
+                    getViewFundingAction(currentStudentIdOpt, paginated, cursor, limit);
 
             // Retrieve response JSON and ensure not null
             String responseJson = viewFundingAction.getResponse();
@@ -235,7 +258,8 @@ public class FacultyAdminController extends HttpServlet {
         }
     }
 
-    private static ViewFundingAction getViewFundingAction(Optional<Long> currentStudentIdOpt) {
+    private static ViewFundingAction getViewFundingAction(Optional<Long> currentStudentIdOpt,
+                                                          boolean paginated, String cursor, int limit) {
         AuthorizationProvider provider = new AuthorizationProvider();
         AuthorizationEnforcer enforcer = new AuthorizationEnforcer(provider);
         FacultyAdmin facultyAdmin = new FacultyAdmin(currentStudentIdOpt.get());
@@ -244,7 +268,9 @@ public class FacultyAdminController extends HttpServlet {
         Permission permission = new Permission(PermissionType.VIEW_FUNDING,
                 Permission.ANY_CLUB);
         RequestContext context = new RequestContext(subject, permission);
-        ViewFundingAction viewFundingAction = new ViewFundingAction(enforcer);
+        ViewFundingAction viewFundingAction = paginated
+                ? new ViewFundingAction(enforcer, cursor, limit)
+                : new ViewFundingAction(enforcer);
         viewFundingAction.execute(context);
         return viewFundingAction;
     }
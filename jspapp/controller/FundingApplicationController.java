@@ -55,7 +55,8 @@ public class FundingApplicationController extends HttpServlet {
     private void handleCreateFundingApplication(HttpServletRequest request, HttpServletResponse response)
             throws IOException {
         try {
-            FundingApplicationMapper fundingMapper = new FundingApplicationMapper();
+            FundingApplicationMapper fundingMapper = (FundingApplicationMapper)
+                    DataMapper.getMapper(FundingApplication.class);
 
             JsonObject jsonObject = getRequestBody(request);
             Long clubId = jsonObject.get("clubId").getAsLong();
@@ -85,11 +86,10 @@ public class FundingApplicationController extends HttpServlet {
 
             StudentClubMapper clubMapper = (StudentClubMapper) DataMapper.getMapper(StudentClub.class);
 
-            Optional<String> clubName = clubMapper.findName(clubId);
-            Optional<String> clubDescription = clubMapper.findDescription(clubId);
+            Optional<StudentClub> clubOpt = clubMapper.find(clubId);
 
-            if (clubName.isPresent() && clubDescription.isPresent()) {
-                StudentClub club = new StudentClub(clubId, clubName.get(), clubDescription.get());
+            if (clubOpt.isPresent() && clubOpt.get().getDescription() != null) {
+                StudentClub club = clubOpt.get();
 
                 FundingApplication fundingApplication = new FundingApplication(null, description, amount,
                         FundingStatus.SUBMITTED, semester);
@@ -114,7 +114,8 @@ public class FundingApplicationController extends HttpServlet {
     private void handleUpdateFundingApplication(HttpServletRequest request, HttpServletResponse response)
             throws IOException {
         try {
-            FundingApplicationMapper fundingMapper = new FundingApplicationMapper();
+            FundingApplicationMapper fundingMapper = (FundingApplicationMapper)
+                    DataMapper.getMapper(FundingApplication.class);
             JsonObject jsonObject = getRequestBody(request);
             Long applicationId = jsonObject.get("applicationId").getAsLong();
             String newDescription = jsonObject.get("description").getAsString();
@@ -153,7 +154,8 @@ public class FundingApplicationController extends HttpServlet {
     private void handleCancelFundingApplication(HttpServletRequest request, HttpServletResponse response)
             throws IOException {
         try {
-            FundingApplicationMapper fundingMapper = new FundingApplicationMapper();
+            FundingApplicationMapper fundingMapper = (FundingApplicationMapper)
+                    DataMapper.getMapper(FundingApplication.class);
             JsonObject jsonObject = getRequestBody(request);
             Long applicationId = jsonObject.get("applicationId").getAsLong();
 
@@ -201,7 +203,8 @@ public class FundingApplicationController extends HttpServlet {
             throws IOException {
         try {
             Long clubId = Long.parseLong(request.getParameter("clubId"));
-            FundingApplicationMapper fundingMapper = new FundingApplicationMapper();
+            FundingApplicationMapper fundingMapper = (FundingApplicationMapper)
+                    DataMapper.getMapper(FundingApplication.class);
             List<FundingApplication> applications = fundingMapper.findByClub(clubId);
 
             JsonArray jsonArray = new JsonArray();
@@ -0,0 +1,40 @@
+package com.unimelb.swen90007.jspapp.controller;
+
+import com.unimelb.swen90007.jspapp.metrics.Metrics;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Servlet exposing the application metrics in the Prometheus text exposition
+ * format, for scraping by a monitoring server.
+ */
+@WebServlet("/metrics")
+public class MetricsController extends HttpServlet {
+
+    /**
+     * Handles GET requests by writing out every metric.
+     *
+     * @param request  the HttpServletRequest object containing the request data.
+     * @param response the HttpServletResponse object for sending the response data.
+     * @throws ServletException if a servlet-specific error occurs.
+     * @throws IOException      if an I/O error occurs during request handling.
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        StringBuilder out = new StringBuilder();
+        Metrics.getInstance().write(out);
+
+        byte[] body = out.toString().getBytes(StandardCharsets.UTF_8);
+        response.setContentType("text/plain; version=0.0.4");
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,73 @@
+package com.unimelb.swen90007.jspapp.controller;
+
+import com.unimelb.swen90007.jspapp.metrics.Metrics;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * This filter records the latency and status code of every request, labelled
+ * by endpoint. Numeric path segments are replaced by "{id}" so that each
+ * endpoint is recorded once, e.g. "/events/{id}".
+ */
+public class MetricsFilter implements Filter {
+
+    private static final String LATENCY = "jspapp_http_request_duration_seconds";
+    private static final String RESPONSES = "jspapp_http_responses_total";
+
+    /**
+     * Maximum number of endpoints recorded, since clients choose the paths.
+     * Further endpoints are recorded as "other".
+     */
+    private static final int MAX_ENDPOINTS = 200;
+
+    /**
+     * Times the request and records its latency and status code.
+     *
+     * @param request  the request object.
+     * @param response the response object.
+     * @param chain    the filter chain.
+     * @throws IOException      if an input or output error occurs during the
+     *                          filter operation.
+     * @throws ServletException if a servlet-specific error occurs during the
+     *                          filter operation.
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        long start = System.nanoTime();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            chain.doFilter(request, response);
+            status = ((HttpServletResponse) response).getStatus();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            HttpServletRequest httpRequest = (HttpServletRequest) request;
+            Metrics metrics = Metrics.getInstance();
+            String endpoint = endpointOf(httpRequest);
+            String labels = Metrics.labels("method", httpRequest.getMethod(), "endpoint", endpoint);
+            if (!metrics.contains(LATENCY, labels) && metrics.size(LATENCY) >= MAX_ENDPOINTS) {
+                labels = Metrics.labels("method", httpRequest.getMethod(), "endpoint", "other");
+            }
+            metrics.histogram(LATENCY, "Time taken to handle requests", labels, 1e9)
+                    .record(elapsed);
+            metrics.counter(RESPONSES, "Responses sent, by status code",
+                    labels + "," + Metrics.labels("status", String.valueOf(status)))
+                    .increment();
+        }
+    }
+
+    /**
+     * Returns the path of a request with its numeric segments replaced by
+     * "{id}".
+     */
+    private static String endpointOf(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (request.getPathInfo() != null) {
+            path += request.getPathInfo();
+        }
+        return path.replaceAll("/\\d+(?=/|$)", "/{id}");
+    }
+}
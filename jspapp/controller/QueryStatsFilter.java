@@ -0,0 +1,116 @@
+package com.unimelb.swen90007.jspapp.controller;
+
+import com.unimelb.swen90007.jspapp.datasource.QueryStats;
+import com.unimelb.swen90007.jspapp.util.Config;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.apache.logging.log4j.LogManager;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * This filter counts the SQL statements run for each request, so that
+ * endpoints issuing one query per field or per row (N+1 queries) show up.
+ * <p>
+ * A warning naming the endpoint and its most repeated statement is logged
+ * when a request runs more than "query.warnThreshold" statements (20 by
+ * default). When "query.debug" is enabled, the counts are also returned in
+ * the X-Query-Count, X-Query-Distinct and X-Query-Time-Ms response headers.
+ */
+public class QueryStatsFilter implements Filter {
+
+    private final int warnThreshold = Config.getInt("query.warnThreshold", 20);
+    private final boolean debug = Config.getBoolean("query.debug", false);
+
+    /**
+     * Collects the query statistics of the request and reports them once it
+     * has been handled.
+     *
+     * @param request  the request object.
+     * @param response the response object.
+     * @param chain    the filter chain.
+     * @throws IOException      if an input or output error occurs during the
+     *                          filter operation.
+     * @throws ServletException if a servlet-specific error occurs during the
+     *                          filter operation.
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        QueryStats stats = QueryStats.begin();
+        try {
+            chain.doFilter(request, debug
+                    ? new HeaderWrapper((HttpServletResponse) response, stats)
+                    : response);
+        } finally {
+            QueryStats.end();
+            if (stats.getCount() > warnThreshold) {
+                HttpServletRequest httpRequest = (HttpServletRequest) request;
+                String sql = stats.getMostRepeated();
+                LogManager.getLogger().warn(httpRequest.getMethod() + " "
+                        + httpRequest.getRequestURI() + " ran "
+                        + stats.getCount() + " queries ("
+                        + stats.getDistinctCount() + " distinct, "
+                        + stats.getTotalMillis() + " ms), most repeated "
+                        + stats.getCount(sql) + " times: "
+                        + sql.strip().replaceAll("\\s+", " "));
+            }
+        }
+    }
+
+    /**
+     * Adds the query headers when the body starts being written, since
+     * headers cannot be set after the response has been committed.
+     */
+    private static class HeaderWrapper extends HttpServletResponseWrapper {
+        private final QueryStats stats;
+        private boolean headersSet;
+
+        HeaderWrapper(HttpServletResponse response, QueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        private void setQueryHeaders() {
+            if (!headersSet) {
+                headersSet = true;
+                setHeader("X-Query-Count", String.valueOf(stats.getCount()));
+                setHeader("X-Query-Distinct", String.valueOf(stats.getDistinctCount()));
+                setHeader("X-Query-Time-Ms", String.valueOf(stats.getTotalMillis()));
+            }
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setQueryHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setQueryHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public void sendError(int statusCode, String message) throws IOException {
+            setQueryHeaders();
+            super.sendError(statusCode, message);
+        }
+
+        @Override
+        public void sendError(int statusCode) throws IOException {
+            setQueryHeaders();
+            super.sendError(statusCode);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setQueryHeaders();
+            super.flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.unimelb.swen90007.jspapp.controller;
+
+import com.unimelb.swen90007.jspapp.metrics.Metrics;
+import com.unimelb.swen90007.jspapp.util.Config;
+import com.unimelb.swen90007.jspapp.util.RateLimiter;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This filter limits how often each client can call each kind of endpoint:
+ * <ul>
+ *     <li>"login": student and faculty admin logins, which hash passwords.</li>
+ *     <li>"rsvp": RSVP creation and cancellation.</li>
+ *     <li>"write": every other request other than GET and HEAD.</li>
+ *     <li>"read": GET and HEAD requests.</li>
+ * </ul>
+ * Clients are identified by their address and, if they send one, by the
+ * token in their "Authorization" header, and must stay within the limit
+ * under both. The limits are set by "ratelimit.{name}.perMinute" and
+ * "ratelimit.{name}.burst". Requests over the limit are rejected with a 429
+ * and a "Retry-After" header.
+ * <p>
+ * Behind a reverse proxy, set "ratelimit.trustProxy" so that clients are
+ * identified by the address the proxy appends to "X-Forwarded-For".
+ */
+public class RateLimitFilter implements Filter {
+
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+
+    /**
+     * Number of cells of each limiter, see {@link RateLimiter}.
+     */
+    private static final int CELLS = 1 << 16;
+
+    private static final boolean TRUST_PROXY =
+            Config.getBoolean("ratelimit.trustProxy", false);
+
+    private final Limit login = new Limit("login", 10, 5);
+    private final Limit rsvp = new Limit("rsvp", 30, 10);
+    private final Limit write = new Limit("write", 60, 20);
+    private final Limit read = new Limit("read", 600, 100);
+
+    /**
+     * A rate limiter and the number of requests it rejected.
+     */
+    private static class Limit {
+        private final String name;
+        private final RateLimiter limiter;
+        private final LongAdder rejected;
+
+        private Limit(String name, int perMinute, int burst) {
+            this.name = name;
+            limiter = new RateLimiter(
+                    Config.getInt("ratelimit." + name + ".perMinute", perMinute),
+                    Config.getInt("ratelimit." + name + ".burst", burst),
+                    CELLS);
+            rejected = Metrics.getInstance().counter("jspapp_ratelimit_rejected_total",
+                    "Requests rejected for exceeding a rate limit",
+                    Metrics.labels("limit", name));
+        }
+    }
+
+    /**
+     * Rejects the request if its client is over the limit of the endpoint.
+     *
+     * @param request  the request object.
+     * @param response the response object.
+     * @param chain    the filter chain.
+     * @throws IOException      if an input or output error occurs during the
+     *                          filter operation.
+     * @throws ServletException if a servlet-specific error occurs during the
+     *                          filter operation.
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        Limit limit = limitOf(httpRequest);
+        if (limit == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long wait = limit.limiter.acquire("ip:" + clientAddress(httpRequest));
+        String token = tokenOf(httpRequest);
+        if (wait == 0 && token != null) {
+            wait = limit.limiter.acquire("token:" + token);
+        }
+        if (wait > 0) {
+            limit.rejected.increment();
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(SC_TOO_MANY_REQUESTS);
+            httpResponse.setHeader("Retry-After",
+                    String.valueOf((wait + 999_999_999) / 1_000_000_000));
+            httpResponse.setContentType("text/plain");
+            httpResponse.getWriter().write("Too many " + limit.name
+                    + " requests, please retry later");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Returns the limit of a request, or null if it is not limited.
+     */
+    private Limit limitOf(HttpServletRequest request) {
+        String path = request.getServletPath();
+        String method = request.getMethod();
+        if (path.equals("/ready") || path.equals("/metrics")
+                || method.equals("OPTIONS")) {
+            return null;
+        }
+        if (method.equals("GET") || method.equals("HEAD")) {
+            return read;
+        }
+        if ("/login".equals(request.getPathInfo())
+                && (path.equals("/student") || path.equals("/facultyAdmin"))) {
+            return login;
+        }
+        if (path.equals("/rsvp")) {
+            return rsvp;
+        }
+        return write;
+    }
+
+    /**
+     * Returns the address of the client of a request.
+     */
+    private static String clientAddress(HttpServletRequest request) {
+        if (TRUST_PROXY) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                return forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * Returns the token in the "Authorization" header of a request, if any.
+     */
+    private static String tokenOf(HttpServletRequest request) {
+        String authorization = request.getHeader("Authorization");
+        if (authorization == null || authorization.isBlank()) {
+            return null;
+        }
+        if (authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return authorization.substring(7).trim();
+        }
+        return authorization.trim();
+    }
+}
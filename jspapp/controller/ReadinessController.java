@@ -0,0 +1,36 @@
+package com.unimelb.swen90007.jspapp.controller;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Servlet telling load balancers whether the application can serve requests:
+ * 200 once the connection pool is warm, 503 while starting or shutting down.
+ */
+@WebServlet("/ready")
+public class ReadinessController extends HttpServlet {
+
+    /**
+     * Handles GET requests by reporting whether the application is ready.
+     *
+     * @param request  the HttpServletRequest object containing the request data.
+     * @param response the HttpServletResponse object for sending the response data.
+     * @throws ServletException if a servlet-specific error occurs.
+     * @throws IOException      if an I/O error occurs during request handling.
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        boolean ready = ApplicationListener.isReady();
+        response.setStatus(ready ? HttpServletResponse.SC_OK
+                : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"ready\":" + ready + "}");
+    }
+}
@@ -0,0 +1,38 @@
+package com.unimelb.swen90007.jspapp.controller;
+
+import com.unimelb.swen90007.jspapp.datasource.ConnectionPool;
+import jakarta.servlet.*;
+
+import java.io.IOException;
+
+/**
+ * This filter pins one database connection to each request, so that the
+ * mapper calls made while handling it share a connection instead of each
+ * borrowing one from the pool.
+ */
+public class RequestConnectionFilter implements Filter {
+
+    /**
+     * Binds a connection to the request and returns it to the pool once the
+     * request has been handled.
+     *
+     * @param request  the request object.
+     * @param response the response object.
+     * @param chain    the filter chain.
+     * @throws IOException      if an input or output error occurs during the
+     *                          filter operation.
+     * @throws ServletException if a servlet-specific error occurs during the
+     *                          filter operation.
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        ConnectionPool pool = ConnectionPool.getInstance();
+        pool.bindRequest();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            pool.unbindRequest();
+        }
+    }
+}
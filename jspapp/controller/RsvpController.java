@@ -2,10 +2,12 @@ package com.unimelb.swen90007.jspapp.controller;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import com.unimelb.swen90007.jspapp.datasource.Page;
 import com.unimelb.swen90007.jspapp.datasource.UnitOfWork;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.*;
 import com.unimelb.swen90007.jspapp.domain.Event;
 import com.unimelb.swen90007.jspapp.domain.Rsvp;
+import com.unimelb.swen90007.jspapp.domain.RsvpSummary;
 import com.unimelb.swen90007.jspapp.domain.Student;
 import com.unimelb.swen90007.jspapp.domain.Ticket;
 import jakarta.servlet.ServletException;
@@ -146,10 +148,7 @@ public class RsvpController extends HttpServlet {
         Event event = rsvp.getEvent();
 
         // Check if the event has already occurred
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime eventDateTime = LocalDateTime.ofEpochSecond(event.getDateTime() / 1000, 0, ZoneOffset.UTC);
-
-        if (now.isAfter(eventDateTime)) {
+        if (((EventMapper) DataMapper.getMapper(Event.class)).hasOccurred(event)) {
             response.sendError(HttpServletResponse.SC_BAD_REQUEST,
                     "Error: Cannot cancel RSVP after event has occurred");
             return;
@@ -212,13 +211,12 @@ public class RsvpController extends HttpServlet {
 
         Long rsvpId = Long.parseLong(rsvpIdStr);
         RsvpMapper rsvpMapper = ((RsvpMapper) DataMapper.getMapper(Rsvp.class));
-        TicketMapper ticketMapper = ((TicketMapper) DataMapper.getMapper(Ticket.class));
-        Optional<Rsvp> rsvpOpt = rsvpMapper.findById(rsvpId);
+        Optional<Rsvp> rsvpOpt = rsvpMapper.findDetails(rsvpId);
 
         if (rsvpOpt.isPresent()) {
             Rsvp rsvp = rsvpOpt.get();
             Event event = rsvp.getEvent();
-            List<Ticket> tickets = ticketMapper.findByRsvp(rsvpId);
+            List<Ticket> tickets = rsvp.getTickets();
 
             Map<String, Object> rsvpMap = new HashMap<>();
             rsvpMap.put("rsvpId", rsvp.getId());
@@ -273,27 +271,14 @@ public class RsvpController extends HttpServlet {
         if (studentOpt.isPresent()) {
             Student student = studentOpt.get();
 
-            // Retrieve RSVPs by student
-            List<Rsvp> rsvps = rsvpMapper.findByStudent(student.getId());
-
-            // Filter out cancelled RSVPs and construct JSON response with
-            // necessary fields
-            List<Map<String, Object>> rsvpList = rsvps.stream()
-                    .filter(rsvp -> !rsvp.getCancelled())
-                    .map(rsvp -> {
-                        Map<String, Object> rsvpMap = new HashMap<>();
-                        rsvpMap.put("rsvpId", rsvp.getId());
-                        rsvpMap.put("eventName", rsvp.getEvent().getTitle());
-
-                        // Retrieve RSVP by ID to get operateTime
-                        Optional<Rsvp> rsvpOpt = rsvpMapper.findById(rsvp.getId());
-                        if (rsvpOpt.isPresent()) {
-                            Rsvp detailedRsvp = rsvpOpt.get();
-                            rsvpMap.put("operateTime", detailedRsvp.getIssueDate());
-                        }
+            // Return a single page of RSVPs if the client asked for one
+            if (request.getParameter("cursor") != null || request.getParameter("limit") != null) {
+                handleGetMyRsvpPage(request, response, student, rsvpMapper);
+                return;
+            }
 
-                        return rsvpMap;
-                    }).collect(Collectors.toList());
+            // Retrieve the RSVPs of the student that are not cancelled
+            List<RsvpSummary> rsvpList = rsvpMapper.findSummariesByStudent(student.getId());
 
             // Return RSVPs as JSON
             String json = new Gson().toJson(rsvpList);
@@ -305,6 +290,31 @@ public class RsvpController extends HttpServlet {
         }
     }
 
+    // Handles the retrieval of a page of RSVPs by student. Cancelled RSVPs
+    // are skipped.
+    private void handleGetMyRsvpPage(HttpServletRequest request, HttpServletResponse response,
+            Student student, RsvpMapper rsvpMapper)
+            throws IOException {
+        Page<RsvpSummary> page;
+        try {
+            int limit = Page.parseLimit(request.getParameter("limit"));
+            page = rsvpMapper.findSummariesByStudent(student.getId(), request.getParameter("cursor"), limit);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        Map<String, Object> pageMap = new HashMap<>();
+        pageMap.put("rsvps", page.getItems());
+        pageMap.put("next", page.getNext());
+
+        // Return the page of RSVPs as JSON
+        String json = new Gson().toJson(pageMap);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(json);
+    }
+
     private void cancelTicketForEmail(String email, Rsvp rsvp,
             StudentMapper studentMapper,
             TicketMapper ticketMapper)
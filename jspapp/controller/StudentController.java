@@ -3,6 +3,7 @@ package com.unimelb.swen90007.jspapp.controller;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.unimelb.swen90007.jspapp.datasource.UnitOfWork;
+import com.unimelb.swen90007.jspapp.datasource.datamapper.DataMapper;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.StudentMapper;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.UserAuthorizationMapper;
 import com.unimelb.swen90007.jspapp.domain.Student;
@@ -24,7 +25,8 @@ import java.util.Optional;
 @WebServlet("/student/*")
 public class StudentController extends HttpServlet {
 
-    private StudentMapper studentMapper = new StudentMapper();
+    private final StudentMapper studentMapper =
+            (StudentMapper) DataMapper.getMapper(Student.class);
     private UserAuthorizationMapper userAuthorizationMapper = new UserAuthorizationMapper();
 
     @Override
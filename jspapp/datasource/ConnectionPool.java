@@ -1,21 +1,95 @@
 package com.unimelb.swen90007.jspapp.datasource;
 
+import com.unimelb.swen90007.jspapp.metrics.Histogram;
+import com.unimelb.swen90007.jspapp.metrics.Metrics;
+import com.unimelb.swen90007.jspapp.util.Bulkhead;
+import com.unimelb.swen90007.jspapp.util.Config;
 import com.unimelb.swen90007.jspapp.util.ConnectionUnavailableException;
+import com.unimelb.swen90007.jspapp.util.Deadline;
+import org.apache.logging.log4j.LogManager;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 public class ConnectionPool {
 
     /**
      * How many connections to open.
      */
-    private static final int POOL_SIZE = 5;
+    private static final int POOL_SIZE = Config.getInt("db.poolSize", 5);
+
+    /**
+     * Whether to record who borrowed each connection and report connections
+     * held for longer than `LEAK_THRESHOLD_MS`.
+     */
+    private static final boolean LEAK_DETECTION =
+            Config.getBoolean("pool.leakDetection", false);
+
+    /**
+     * How long a connection can be held before it is reported as leaked.
+     */
+    private static final int LEAK_THRESHOLD_MS =
+            Config.getInt("pool.leakThresholdMs", 10000);
 
     /**
      * Singleton instance
      */
-    private static ConnectionPool instance;
+    private static volatile ConnectionPool instance;
+
+    /**
+     * How long to wait for borrowed connections to be released on shutdown.
+     */
+    private static final int DRAIN_TIMEOUT_MS =
+            Config.getInt("pool.drainTimeoutMs", 10000);
+
+    /**
+     * How long to wait for a connection when none is available, unless the
+     * deadline of the request is sooner.
+     */
+    private static final int MAX_WAIT_MS = Config.getInt("pool.maxWaitMs", 1000);
+
+    /**
+     * How many connections are kept for requests with priority, see
+     * {@link Bulkhead#isPriority()}.
+     */
+    private static final int RESERVED_SLOTS = Config.getInt("pool.reservedSlots", 1);
+
+    /**
+     * Pool of connections to the read replica, or null if no replica is
+     * configured.
+     */
+    private final ConnectionPool replica;
+
+    /**
+     * Name of the pool in logs and metrics.
+     */
+    private final String name;
+
+    /**
+     * How many connections the pool holds once they are all open.
+     */
+    private final int size;
+
+    /**
+     * Opens a connection, which may fail to connect.
+     */
+    private final Supplier<DBConnection> factory;
+
+    /**
+     * How many connections only requests with priority can take, always
+     * leaving at least one for the others.
+     */
+    private final int reserved;
 
     /**
      * List holding the pool of connections that are available.
@@ -28,38 +102,329 @@ public class ConnectionPool {
     private final List<DBConnection> usedConnections;
 
     /**
-     * Get the singleton instance of this class. Lazily constructs the
-     * instance if it is null.
+     * Whether the pool has been shut down and no longer hands out
+     * connections.
+     */
+    private boolean closed;
+
+    /**
+     * The borrower of each connection in use, when leak detection is enabled.
+     */
+    private final Map<DBConnection, Borrow> borrows = new IdentityHashMap<>();
+
+    /**
+     * Periodically checks for leaked connections, when leak detection is
+     * enabled.
+     */
+    private ScheduledExecutorService leakChecker;
+
+    /**
+     * The connection of this pool bound to the request handled by each
+     * thread, if any.
+     */
+    private final ThreadLocal<RequestBinding> requestBinding = new ThreadLocal<>();
+
+    /**
+     * Time taken to obtain a connection, in nanoseconds.
+     */
+    private final Histogram waitTime;
+
+    /**
+     * Number of requests for a connection made while none was available.
+     */
+    private final LongAdder exhausted;
+
+    /**
+     * Number of statements left open by the borrower of a connection.
+     */
+    private final LongAdder leakedStatements;
+
+    /**
+     * Number of connections held for longer than `LEAK_THRESHOLD_MS`.
+     */
+    private final LongAdder leakedConnections;
+
+    /**
+     * The connection pinned to a request, and how many mapper calls are
+     * currently using it.
+     */
+    private static class RequestBinding {
+        private DBConnection connection;
+        private int depth;
+    }
+
+    /**
+     * Where and when a connection was borrowed.
+     */
+    private static class Borrow {
+        private final long time = System.currentTimeMillis();
+        private final Throwable stack = new Throwable(
+                "Connection borrowed by " + Thread.currentThread().getName());
+        private boolean reported;
+    }
+
+    /**
+     * Get the singleton instance of this class. The instance is constructed
+     * by the first caller, normally when the application starts, and callers
+     * arriving meanwhile wait for it.
      *
      * @return The singleton `ConnectionPool` instance.
      */
     public static ConnectionPool getInstance() {
-        if (instance == null) {
-            instance = new ConnectionPool();
+        ConnectionPool pool = instance;
+        if (pool == null) {
+            synchronized (ConnectionPool.class) {
+                if (instance == null) {
+                    instance = create();
+                }
+                pool = instance;
+            }
         }
-        return instance;
+        return pool;
+    }
+
+    private static ConnectionPool create() {
+        // Reads go to the primary database unless a replica is configured
+        String replicaUrl = Config.get("db.replica.url", null);
+        ConnectionPool replica = replicaUrl == null ? null
+                : new ConnectionPool("replica",
+                Config.getInt("db.replica.poolSize", POOL_SIZE), null,
+                () -> new DBConnection(replicaUrl,
+                        Config.get("db.replica.user", DBConnection.USER),
+                        Config.get("db.replica.password", DBConnection.PASSWORD),
+                        true));
+        return new ConnectionPool("primary", POOL_SIZE, replica,
+                DBConnection::new);
     }
 
     /**
-     * Construct a new ConnectionPool with `POOL_SIZE` number of connections.
+     * Construct a new ConnectionPool. Connections that fail to connect are
+     * left out, until {@link #reopen()} is called.
+     *
+     * @param name    the name of the pool in logs and metrics
+     * @param size    the number of connections to open
+     * @param replica the pool to send reads to, or null to keep them in
+     *                this pool
+     * @param factory opens a connection
      */
-    private ConnectionPool() {
-        availableConnections = new ArrayList<>(POOL_SIZE);
+    private ConnectionPool(String name, int size, ConnectionPool replica,
+                           Supplier<DBConnection> factory) {
+        this.name = name;
+        this.size = size;
+        this.factory = factory;
+        this.replica = replica;
+        reserved = Math.max(0, Math.min(RESERVED_SLOTS, size - 1));
+        availableConnections = new ArrayList<>(size);
         usedConnections = new ArrayList<>();
-        for (int i = 0; i < POOL_SIZE; i++) {
-            availableConnections.add(new DBConnection());
+        for (DBConnection connection : open(size)) {
+            if (connection.isOpen()) {
+                availableConnections.add(connection);
+            }
+        }
+
+        Metrics metrics = Metrics.getInstance();
+        String labels = Metrics.labels("pool", name);
+        waitTime = metrics.histogram("jspapp_pool_wait_seconds",
+                "Time taken to obtain a database connection", labels, 1e9);
+        exhausted = metrics.counter("jspapp_pool_exhausted_total",
+                "Requests for a database connection that found none available", labels);
+        leakedStatements = metrics.counter("jspapp_pool_leaked_statements_total",
+                "Statements left open when a connection was released", labels);
+        leakedConnections = metrics.counter("jspapp_pool_leaked_connections_total",
+                "Connections held for longer than the leak threshold", labels);
+        metrics.gauge("jspapp_pool_connections", "Database connections in the pool",
+                labels + "," + Metrics.labels("state", "used"), this::getUsedCount);
+        metrics.gauge("jspapp_pool_connections", "Database connections in the pool",
+                labels + "," + Metrics.labels("state", "available"), this::getAvailableCount);
+
+        if (LEAK_DETECTION) {
+            leakChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name + "-connection-leak-checker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1, LEAK_THRESHOLD_MS / 2);
+            leakChecker.scheduleAtFixedRate(this::reportLeaks, period, period,
+                    TimeUnit.MILLISECONDS);
         }
     }
 
     /**
-     * Get an available connection from the connection pool.
+     * Opens connections in parallel, since each takes a round trip to the
+     * database.
+     *
+     * @param count the number of connections to open
+     * @return the connections, including those that failed to connect
+     */
+    private List<DBConnection> open(int count) {
+        List<DBConnection> opened = new ArrayList<>(count);
+        if (count <= 0) {
+            return opened;
+        }
+        ExecutorService opener = Executors.newFixedThreadPool(count);
+        try {
+            List<Future<DBConnection>> connections = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                connections.add(opener.submit(factory::get));
+            }
+            for (Future<DBConnection> connection : connections) {
+                opened.add(connection.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LogManager.getLogger().error("Unable to open the " + name + " pool", e);
+        } finally {
+            opener.shutdown();
+        }
+        return opened;
+    }
+
+    /**
+     * Opens the connections of this pool, and of the replica, that failed to
+     * connect, e.g. because the database was down when the application
+     * started.
+     *
+     * @return whether every connection of the pools is open
+     */
+    public boolean reopen() {
+        int missing;
+        synchronized (this) {
+            missing = closed ? 0 : size - availableConnections.size()
+                    - usedConnections.size();
+        }
+
+        List<DBConnection> opened = open(missing);
+        boolean complete = opened.size() == missing;
+        synchronized (this) {
+            for (DBConnection connection : opened) {
+                if (!connection.isOpen()) {
+                    complete = false;
+                } else if (closed) {
+                    connection.close();
+                } else {
+                    availableConnections.add(connection);
+                }
+            }
+            complete &= !closed;
+            notifyAll();
+        }
+        if (!complete) {
+            LogManager.getLogger().warn("Unable to open every connection of the "
+                    + name + " pool");
+        }
+        return (replica == null || replica.reopen()) && complete;
+    }
+
+    /**
+     * Get an available connection from the connection pool, waiting up to
+     * `MAX_WAIT_MS` or until the deadline of the request for one to be
+     * released. Within a request bound with {@link #bindRequest()}, the
+     * first call borrows a connection and later calls return the same one.
+     *
+     * @return An available database connection
+     * @throws ConnectionUnavailableException if there is no connection
+     *                                        available in time
+     */
+    public DBConnection getConnection() throws ConnectionUnavailableException {
+        RequestBinding binding = requestBinding.get();
+        if (binding != null && binding.connection != null) {
+            binding.depth++;
+            return binding.connection;
+        }
+
+        long start = System.nanoTime();
+        DBConnection connection;
+        try {
+            connection = takeConnection(Math.min(MAX_WAIT_MS, Deadline.remainingMillis()));
+        } catch (ConnectionUnavailableException e) {
+            exhausted.increment();
+            throw e;
+        } finally {
+            waitTime.record(System.nanoTime() - start);
+        }
+
+        if (binding != null) {
+            binding.connection = connection;
+            binding.depth = 1;
+        }
+        return connection;
+    }
+
+    /**
+     * Get a connection for statements that only read. It comes from the
+     * replica if one is configured, unless the current request has already
+     * written to the primary database, in which case it must see its own
+     * writes.
+     * <p>
+     * Reads whose results are cached must use {@link #getConnection()}
+     * instead. Otherwise the first read after another request's write could
+     * still see the replica's old data, and that data would be cached.
      *
      * @return An available database connection
      * @throws ConnectionUnavailableException if there is no connection available
      */
-    public synchronized DBConnection getConnection() throws ConnectionUnavailableException {
-        // Throw error if no connection is available
-        if (availableConnections.isEmpty()) {
+    public DBConnection getReadConnection() throws ConnectionUnavailableException {
+        if (replica == null) {
+            return getConnection();
+        }
+        RequestBinding binding = requestBinding.get();
+        if (binding != null && binding.connection != null
+                && binding.connection.hasWritten()) {
+            return getConnection();
+        }
+        return replica.getConnection();
+    }
+
+    /**
+     * Pins a connection to the request handled by the current thread, until
+     * {@link #unbindRequest()} is called. The connection is only borrowed
+     * when first needed, and statements in the request see the writes made
+     * earlier in the same request. The same applies to the replica, if any.
+     */
+    public void bindRequest() {
+        requestBinding.set(new RequestBinding());
+        if (replica != null) {
+            replica.bindRequest();
+        }
+    }
+
+    /**
+     * Returns the connections pinned to the current request, if any, to their
+     * pools.
+     */
+    public void unbindRequest() {
+        RequestBinding binding = requestBinding.get();
+        requestBinding.remove();
+        if (binding != null && binding.connection != null) {
+            returnConnection(binding.connection);
+        }
+        if (replica != null) {
+            replica.unbindRequest();
+        }
+    }
+
+    private synchronized DBConnection takeConnection(long timeoutMillis)
+            throws ConnectionUnavailableException {
+        // Wait for a connection to be released, leaving the reserved ones to
+        // requests with priority
+        int keep = Bulkhead.isPriority() ? 0 : reserved;
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (!closed && availableConnections.size() <= keep && remaining > 0) {
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            remaining = deadline - System.currentTimeMillis();
+        }
+
+        // Throw error if no connection is available. The work of the request
+        // is cut short either way, since the mappers only log the error
+        if (closed || availableConnections.size() <= keep) {
+            Deadline.markExceeded();
             throw new ConnectionUnavailableException();
         }
 
@@ -67,6 +432,9 @@ public class ConnectionPool {
         DBConnection connection = availableConnections.remove(
                 availableConnections.size() - 1);
         usedConnections.add(connection);
+        if (LEAK_DETECTION) {
+            borrows.put(connection, new Borrow());
+        }
         return connection;
     }
 
@@ -75,17 +443,150 @@ public class ConnectionPool {
      *
      * @param connection The connection that is free to use again
      */
-    public synchronized void releaseConnection(DBConnection connection) {
+    public void releaseConnection(DBConnection connection) {
         if (connection == null) return;
-        usedConnections.remove(connection);
-        availableConnections.add(connection);
+        if (connection.isReadOnly() && replica != null) {
+            replica.releaseConnection(connection);
+            return;
+        }
+
+        // A connection pinned to the request stays with it until the end of
+        // the request, but is cleaned up once no mapper call is using it
+        RequestBinding binding = requestBinding.get();
+        if (binding != null && binding.connection == connection) {
+            if (--binding.depth == 0) {
+                cleanUp(connection);
+            }
+            return;
+        }
+        returnConnection(connection);
+    }
+
+    /**
+     * Cleans up a connection and makes it available again.
+     */
+    private void returnConnection(DBConnection connection) {
+        cleanUp(connection);
+        connection.clearWritten();
+        synchronized (this) {
+            borrows.remove(connection);
+            usedConnections.remove(connection);
+            if (closed) {
+                connection.close();
+            } else if (connection.isOpen()) {
+                availableConnections.add(connection);
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * Closes the statements left open by the borrower of a connection and
+     * ends any transaction it left unfinished, so they are not carried over
+     * to the next user of the connection.
+     */
+    private void cleanUp(DBConnection connection) {
+        int open = connection.closeOpenStatements();
+        if (open > 0) {
+            leakedStatements.add(open);
+            Borrow borrow;
+            synchronized (this) {
+                borrow = borrows.get(connection);
+            }
+            LogManager.getLogger().warn("Connection of the " + name
+                    + " pool released with " + open
+                    + " open statements", borrow == null ? null : borrow.stack);
+        }
+        connection.resetTransaction();
+    }
+
+    /**
+     * Logs the connections held for longer than `LEAK_THRESHOLD_MS`, along
+     * with where they were borrowed and their open statements. Each
+     * connection is reported once per borrow.
+     */
+    private void reportLeaks() {
+        long now = System.currentTimeMillis();
+        Map<DBConnection, Borrow> leaks = new IdentityHashMap<>();
+        synchronized (this) {
+            borrows.forEach((connection, borrow) -> {
+                if (!borrow.reported && now - borrow.time > LEAK_THRESHOLD_MS) {
+                    borrow.reported = true;
+                    leaks.put(connection, borrow);
+                }
+            });
+        }
+
+        leaks.forEach((connection, borrow) -> {
+            leakedConnections.increment();
+            LogManager.getLogger().warn("Connection of the " + name
+                    + " pool held for "
+                    + (now - borrow.time) + " ms with "
+                    + connection.countOpenStatements() + " open statements",
+                    borrow.stack);
+        });
+    }
+
+    /**
+     * @return the number of connections in use
+     */
+    public synchronized int getUsedCount() {
+        return usedConnections.size();
+    }
+
+    /**
+     * @return the number of connections available
+     */
+    public synchronized int getAvailableCount() {
+        return availableConnections.size();
     }
 
     /**
      * Close the open connections.
      */
     public void close() {
+        if (leakChecker != null) {
+            leakChecker.shutdownNow();
+        }
+        if (replica != null) {
+            replica.close();
+        }
         availableConnections.forEach(DBConnection::close);
         usedConnections.forEach(DBConnection::close);
     }
+
+    /**
+     * Stops handing out connections, waits up to `DRAIN_TIMEOUT_MS` for the
+     * borrowed ones to be released, then closes every connection. Connections
+     * released while draining are closed straight away.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            closed = true;
+            availableConnections.forEach(DBConnection::close);
+            availableConnections.clear();
+
+            long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+            try {
+                long remaining;
+                while (!usedConnections.isEmpty()
+                        && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    wait(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!usedConnections.isEmpty()) {
+                LogManager.getLogger().warn("Closing the " + name + " pool with "
+                        + usedConnections.size() + " connections still in use");
+            }
+            usedConnections.forEach(DBConnection::close);
+        }
+        if (leakChecker != null) {
+            leakChecker.shutdownNow();
+        }
+        if (replica != null) {
+            replica.shutdown();
+        }
+    }
 }
@@ -1,8 +1,13 @@
 package com.unimelb.swen90007.jspapp.datasource;
 
+import com.unimelb.swen90007.jspapp.util.Config;
+import com.unimelb.swen90007.jspapp.util.Deadline;
 import org.apache.logging.log4j.LogManager;
 
 import java.sql.*;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * DBController is a singleton containing the database connection object and
@@ -11,18 +16,71 @@ import java.sql.*;
 public class DBConnection {
     private java.sql.Connection connection;
 
+    /**
+     * Statements opened on this connection that may not have been closed yet.
+     */
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+
+    // Database connection parameters, set with "db.url", "db.user" and
+    // "db.password". Only the local profile has defaults, for a local
+    // database, and startup fails if they are missing in other profiles
+    static final String URL = Config.isLocalProfile()
+            ? Config.get("db.url", "jdbc:postgresql://localhost:5432/swen90007")
+            : Config.require("db.url");
+    static final String USER = Config.isLocalProfile()
+            ? Config.get("db.user", "postgres")
+            : Config.require("db.user");
+    static final String PASSWORD = Config.isLocalProfile()
+            ? Config.get("db.password", "password")
+            : Config.require("db.password");
+
+    /**
+     * How long to wait for the database when connecting, in seconds.
+     */
+    private static final int CONNECT_TIMEOUT =
+            Config.getInt("db.connectTimeoutSeconds", 10);
+
+    /**
+     * How long to wait for the database to answer once connected, in
+     * seconds, or 0 to wait indefinitely.
+     */
+    private static final int SOCKET_TIMEOUT =
+            Config.getInt("db.socketTimeoutSeconds", 0);
+
+    /**
+     * SQL state of a statement cancelled by its timeout.
+     */
+    private static final String QUERY_CANCELED = "57014";
+
+    /**
+     * Whether this is a connection to a read replica.
+     */
+    private final boolean readOnly;
+
+    /**
+     * Whether a statement that may write has run since the connection was
+     * last returned to its pool.
+     */
+    private boolean written;
+
     /**
      * Construct a new DBController. It is made private to avoid construction
      * beside the singleton.
      */
     DBConnection() {
-        // Database connection parameters
-        String url = "jdbc:postgresql://dpg-cren23bgbbvc73bs8oag-a.oregon-postgres.render.com/mydb_lur2";
-        String user = "genshin";
-        String password = "1vCsYWUWIJOH1M3AMnAwuRs93qI9AulY";
-        // String url = "jdbc:postgresql://localhost:5432/swen90007";
-        // String user = "postgres";
-        // String password = "password";
+        this(URL, USER, PASSWORD, false);
+    }
+
+    /**
+     * Construct a new DBController connected to the given database.
+     *
+     * @param url      the JDBC URL of the database
+     * @param user     the database user
+     * @param password the password of the database user
+     * @param readOnly whether the database is a read replica
+     */
+    DBConnection(String url, String user, String password, boolean readOnly) {
+        this.readOnly = readOnly;
 
         try {
             Class.forName("org.postgresql.Driver");
@@ -34,9 +92,15 @@ public class DBConnection {
 
         try {
             // Establish the connection
-            connection = DriverManager.getConnection(url, user, password);
+            Properties properties = new Properties();
+            properties.setProperty("user", user);
+            properties.setProperty("password", password);
+            properties.setProperty("connectTimeout", String.valueOf(CONNECT_TIMEOUT));
+            properties.setProperty("socketTimeout", String.valueOf(SOCKET_TIMEOUT));
+            connection = DriverManager.getConnection(url, properties);
 
             if (connection != null) {
+                connection.setReadOnly(readOnly);
                 System.out.println("Connected to the database!");
             } else {
                 System.out.println("Failed to make connection!");
@@ -46,10 +110,28 @@ public class DBConnection {
         }
     }
 
+    /**
+     * @return whether the connection to the database was opened
+     */
+    public boolean isOpen() {
+        return connection != null;
+    }
+
+    /**
+     * @return whether this is a connection to a read replica
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
     /**
      * Close the database connection and cleanup resources.
      */
     public void close() {
+        if (connection == null) {
+            return;
+        }
+
         // Close the database connection
         try {
             connection.close();
@@ -67,12 +149,20 @@ public class DBConnection {
      * @throws SQLException if a database access error occurs
      */
     public void update(String sql, Object... params) throws SQLException {
-        PreparedStatement stmt = connection.prepareStatement(sql);
-        for (int i = 0; i < params.length; i++) {
-            stmt.setObject(i + 1, params[i]);
+        written = true;
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        PreparedStatement stmt = prepare(sql, params);
+        try {
+            stmt.executeUpdate();
+            succeeded = true;
+        } catch (SQLException e) {
+            checkCancelled(e);
+            throw e;
+        } finally {
+            stmt.close();
+            recordStatement(sql, params, System.nanoTime() - start, succeeded);
         }
-        stmt.executeUpdate();
-        stmt.close();
     }
 
     /**
@@ -84,14 +174,144 @@ public class DBConnection {
      * @throws SQLException if a database access error occurs
      */
     public ResultSet execute(String sql, Object... params) throws SQLException {
+        // e.g. INSERT ... RETURNING
+        if (!sql.stripLeading().regionMatches(true, 0, "SELECT", 0, 6)) {
+            written = true;
+        }
+        long start = System.nanoTime();
+        PreparedStatement stmt = prepare(sql, params);
+        statements.add(stmt);
+        ResultSet rs = null;
+        try {
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            checkCancelled(e);
+            throw e;
+        } finally {
+            recordStatement(sql, params, System.nanoTime() - start, rs != null);
+        }
+        return rs;
+    }
+
+    /**
+     * Prepares a statement, limiting its run time to what is left before the
+     * deadline of the current request. Fails straight away if the deadline
+     * has already passed.
+     */
+    private PreparedStatement prepare(String sql, Object[] params) throws SQLException {
+        long remaining = Deadline.remainingMillis();
+        if (remaining <= 0) {
+            Deadline.markExceeded();
+            throw new SQLTimeoutException("Request deadline exceeded");
+        }
+
         PreparedStatement stmt = connection.prepareStatement(sql);
         for (int i = 0; i < params.length; i++) {
             stmt.setObject(i + 1, params[i]);
         }
-        return stmt.executeQuery();
+        if (remaining != Long.MAX_VALUE) {
+            // Timeouts are in whole seconds, so round up
+            stmt.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, (remaining + 999) / 1000));
+        }
+        return stmt;
+    }
+
+    /**
+     * Records that the deadline of the request was exceeded if a statement
+     * was cancelled by its timeout.
+     */
+    private void checkCancelled(SQLException e) {
+        if (e instanceof SQLTimeoutException || QUERY_CANCELED.equals(e.getSQLState())) {
+            Deadline.markExceeded();
+        }
+    }
+
+    /**
+     * Records a statement in the request statistics and the slow query log.
+     */
+    private void recordStatement(String sql, Object[] params, long nanos,
+                                 boolean succeeded) {
+        QueryStats.record(sql, nanos);
+        SlowQueryLog.check(connection, sql, params, nanos, succeeded);
+    }
+
+    /**
+     * Returns the number of statements returned by {@link #execute} that have
+     * not been closed yet.
+     *
+     * @return the number of open statements
+     */
+    public int countOpenStatements() {
+        statements.removeIf(this::isClosed);
+        return statements.size();
+    }
+
+    /**
+     * Closes the statements returned by {@link #execute} that have not been
+     * closed yet.
+     *
+     * @return the number of statements that were open
+     */
+    public int closeOpenStatements() {
+        int open = 0;
+        for (Statement stmt : statements) {
+            if (!isClosed(stmt)) {
+                open++;
+                try {
+                    stmt.close();
+                } catch (SQLException e) {
+                    LogManager.getLogger().error("Unable to close statement", e);
+                }
+            }
+        }
+        statements.clear();
+        return open;
+    }
+
+    private boolean isClosed(Statement stmt) {
+        try {
+            return stmt.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Rolls back the current transaction, if any, and returns to auto-commit
+     * mode. Transactions are committed by the mappers before they release
+     * the connection, so only the work of a failed transaction is dropped.
+     */
+    public void resetTransaction() {
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LogManager.getLogger().error("Unable to reset transaction", e);
+        }
+    }
+
+    /**
+     * @return whether a statement that may write has run since the
+     * connection was last returned to its pool
+     */
+    public boolean hasWritten() {
+        return written;
+    }
+
+    /**
+     * Forgets the writes made on this connection, once it is returned to its
+     * pool.
+     */
+    void clearWritten() {
+        written = false;
     }
 
     public void setAutoCommit(boolean autoCommit) throws SQLException {
+        if (!autoCommit) {
+            written = true;
+        }
         connection.setAutoCommit(autoCommit);
     }
 
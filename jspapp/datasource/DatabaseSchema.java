@@ -0,0 +1,238 @@
+package com.unimelb.swen90007.jspapp.datasource;
+
+import com.unimelb.swen90007.jspapp.util.Config;
+import com.unimelb.swen90007.jspapp.util.ConnectionUnavailableException;
+import org.apache.logging.log4j.LogManager;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies the schema changes the mappers rely on, such as indexes backing
+ * their queries. Every statement is idempotent, so they are simply applied
+ * in order on every startup.
+ * <p>
+ * When "db.createSchema" is set, which the local profile does by default,
+ * the tables are created first, so that an empty database can be used.
+ */
+public class DatabaseSchema {
+
+    /**
+     * The tables used by the mappers, in dependency order.
+     */
+    private static final List<String> TABLES = List.of(
+            """
+                    CREATE TABLE IF NOT EXISTS Students (
+                        studentID BIGSERIAL PRIMARY KEY,
+                        name TEXT NOT NULL,
+                        email TEXT NOT NULL UNIQUE,
+                        password TEXT NOT NULL
+                    )
+                    """,
+            """
+                    CREATE TABLE IF NOT EXISTS FacultyAdministrators (
+                        facultyID BIGSERIAL PRIMARY KEY,
+                        name TEXT NOT NULL,
+                        email TEXT NOT NULL UNIQUE,
+                        password TEXT NOT NULL
+                    )
+                    """,
+            """
+                    CREATE TABLE IF NOT EXISTS StudentClubs (
+                        clubID BIGSERIAL PRIMARY KEY,
+                        name TEXT NOT NULL,
+                        description TEXT
+                    )
+                    """,
+            """
+                    CREATE TABLE IF NOT EXISTS Memberships (
+                        studentID BIGINT NOT NULL REFERENCES Students ON DELETE CASCADE,
+                        clubID BIGINT NOT NULL REFERENCES StudentClubs ON DELETE CASCADE,
+                        PRIMARY KEY (studentID, clubID)
+                    )
+                    """,
+            """
+                    CREATE TABLE IF NOT EXISTS Venues (
+                        venueID BIGSERIAL PRIMARY KEY,
+                        location TEXT NOT NULL,
+                        address TEXT,
+                        capacity INTEGER
+                    )
+                    """,
+            """
+                    CREATE TABLE IF NOT EXISTS Events (
+                        eventID BIGSERIAL PRIMARY KEY,
+                        title TEXT NOT NULL,
+                        description TEXT,
+                        attenders INTEGER NOT NULL DEFAULT 0,
+                        venueID BIGINT NOT NULL REFERENCES Venues,
+                        dateTime TIMESTAMP NOT NULL,
+                        clubID BIGINT NOT NULL REFERENCES StudentClubs ON DELETE CASCADE,
+                        cancelled BOOLEAN NOT NULL DEFAULT FALSE,
+                        version INTEGER NOT NULL DEFAULT 1
+                    )
+                    """,
+            """
+                    CREATE TABLE IF NOT EXISTS RSVPs (
+                        rsvpID BIGSERIAL PRIMARY KEY,
+                        studentID BIGINT NOT NULL REFERENCES Students ON DELETE CASCADE,
+                        eventID BIGINT NOT NULL REFERENCES Events ON DELETE CASCADE,
+                        issueDate TIMESTAMP NOT NULL DEFAULT now(),
+                        cancelled BOOLEAN NOT NULL DEFAULT FALSE
+                    )
+                    """,
+            """
+                    CREATE TABLE IF NOT EXISTS Tickets (
+                        ticketID BIGSERIAL PRIMARY KEY,
+                        rsvpID BIGINT NOT NULL REFERENCES RSVPs ON DELETE CASCADE,
+                        studentID BIGINT NOT NULL REFERENCES Students ON DELETE CASCADE,
+                        eventID BIGINT NOT NULL REFERENCES Events ON DELETE CASCADE
+                    )
+                    """,
+            """
+                    CREATE TABLE IF NOT EXISTS FundingApplications (
+                        applicationID BIGSERIAL PRIMARY KEY,
+                        description TEXT,
+                        amount DOUBLE PRECISION NOT NULL,
+                        status TEXT NOT NULL,
+                        clubID BIGINT NOT NULL REFERENCES StudentClubs ON DELETE CASCADE,
+                        semester INTEGER,
+                        reviewerID BIGINT REFERENCES FacultyAdministrators ON DELETE SET NULL,
+                        version INTEGER NOT NULL DEFAULT 1
+                    )
+                    """,
+            """
+                    CREATE TABLE IF NOT EXISTS FundingReviews (
+                        facultyID BIGINT NOT NULL REFERENCES FacultyAdministrators ON DELETE CASCADE,
+                        applicationID BIGINT NOT NULL REFERENCES FundingApplications ON DELETE CASCADE,
+                        PRIMARY KEY (facultyID, applicationID)
+                    )
+                    """,
+            """
+                    CREATE TABLE IF NOT EXISTS UserAuthorization (
+                        token TEXT PRIMARY KEY,
+                        studentID BIGINT REFERENCES Students ON DELETE CASCADE,
+                        facultyID BIGINT REFERENCES FacultyAdministrators ON DELETE CASCADE
+                    )
+                    """
+    );
+
+    /**
+     * The schema changes, in the order they are applied.
+     */
+    private static final List<String> UPGRADES = List.of(
+            // Keyset pagination of events by date and time
+            """
+                    CREATE INDEX IF NOT EXISTS events_datetime_idx
+                    ON Events (dateTime, eventID)
+                    """,
+            // Filtering events by club, ordered by date and time
+            """
+                    CREATE INDEX IF NOT EXISTS events_club_datetime_idx
+                    ON Events (clubID, dateTime, eventID)
+                    """,
+            // Filtering out cancelled events, ordered by date and time
+            """
+                    CREATE INDEX IF NOT EXISTS events_active_datetime_idx
+                    ON Events (dateTime, eventID)
+                    WHERE NOT cancelled
+                    """,
+            // Filtering events by venue type or free capacity
+            """
+                    CREATE INDEX IF NOT EXISTS events_venue_datetime_idx
+                    ON Events (venueID, dateTime)
+                    """,
+            """
+                    CREATE INDEX IF NOT EXISTS venues_location_idx
+                    ON Venues (location, venueID)
+                    """,
+            // Full-text search over event titles and descriptions. The
+            // vector is a generated column, so Postgres keeps it up to date
+            """
+                    ALTER TABLE Events ADD COLUMN IF NOT EXISTS searchVector tsvector
+                    GENERATED ALWAYS AS (
+                        setweight(to_tsvector('english', coalesce(title, '')), 'A')
+                        || setweight(to_tsvector('english', coalesce(description, '')), 'B')
+                    ) STORED
+                    """,
+            """
+                    CREATE INDEX IF NOT EXISTS events_search_idx
+                    ON Events USING GIN (searchVector)
+                    """,
+            // Keyset pagination of the RSVPs of a student
+            """
+                    CREATE INDEX IF NOT EXISTS rsvps_student_idx
+                    ON RSVPs (studentID, rsvpID)
+                    """,
+            // Case-insensitive lookups of students by email, which must be
+            // unique ignoring case. Creating the index fails, and the
+            // duplicated email is logged, if existing students share an email
+            // ignoring case. The non-unique index it replaces is only dropped
+            // once it exists
+            """
+                    CREATE UNIQUE INDEX IF NOT EXISTS students_email_lower_key
+                    ON Students (lower(email))
+                    """,
+            """
+                    DO $$
+                    BEGIN
+                        IF to_regclass('students_email_lower_key') IS NOT NULL THEN
+                            DROP INDEX IF EXISTS students_email_lower_idx;
+                        END IF;
+                    END
+                    $$
+                    """,
+            // Denormalized events read by the event listings, see
+            // EventReadModel
+            EventReadModel.CREATE_REVISIONS,
+            EventReadModel.CREATE,
+            EventReadModel.ADD_REVISION,
+            """
+                    CREATE INDEX IF NOT EXISTS eventcatalog_datetime_idx
+                    ON EventCatalog (dateTime, eventID)
+                    """,
+            """
+                    CREATE INDEX IF NOT EXISTS eventcatalog_club_datetime_idx
+                    ON EventCatalog (clubID, dateTime, eventID)
+                    """,
+            """
+                    CREATE INDEX IF NOT EXISTS eventcatalog_venue_idx
+                    ON EventCatalog (venueID)
+                    """,
+            EventReadModel.POPULATE
+    );
+
+    /**
+     * Applies every schema change, after creating the tables if enabled, then
+     * rebuilds the event catalog if enabled. Failures are logged and do not
+     * stop the remaining changes from being applied.
+     */
+    public static void upgrade() {
+        DBConnection conn = null;
+        List<String> statements = new ArrayList<>();
+        if (Config.getBoolean("db.createSchema", Config.isLocalProfile())) {
+            statements.addAll(TABLES);
+        }
+        statements.addAll(UPGRADES);
+        if (Config.getBoolean("db.rebuildCatalog", false)) {
+            statements.add(EventReadModel.REBUILD);
+        }
+
+        try {
+            conn = ConnectionPool.getInstance().getConnection();
+            for (String sql : statements) {
+                try {
+                    conn.update(sql);
+                } catch (SQLException e) {
+                    LogManager.getLogger().error(
+                            "Unable to apply schema change " + sql, e);
+                }
+            }
+        } catch (ConnectionUnavailableException e) {
+            LogManager.getLogger().error("Unable to upgrade schema", e);
+        } finally {
+            ConnectionPool.getInstance().releaseConnection(conn);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.unimelb.swen90007.jspapp.datasource;
+
+import com.unimelb.swen90007.jspapp.metrics.Metrics;
+import com.unimelb.swen90007.jspapp.util.Config;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache shared by all requests holding database rows that are read much more
+ * often than they change, keyed by ID or another unique column. The mappers
+ * consult it in their finders and invalidate rows in their update and delete
+ * methods, using a generation counter in the same way as {@link EventCache}
+ * so that a stale read can never overwrite a newer invalidation. The rows are
+ * read from the primary database, since a lagging replica could return a row
+ * as it was before the invalidation.
+ * <p>
+ * The cache holds at most "cache.{name}.maxSize" rows, evicting expired rows
+ * and then arbitrary ones once full. If "cache.{name}.ttlMs" is positive,
+ * rows also expire after that long, which bounds how long a row changed
+ * outside of the application stays stale.
+ *
+ * @param <K> the type of the keys
+ * @param <T> the type of the cached rows
+ */
+public class EntityCache<K, T> {
+
+    private final Map<K, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlNanos;
+
+    /**
+     * Incremented on every invalidation.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * A cached row and when it expires, as returned by System.nanoTime(), or
+     * Long.MAX_VALUE if it does not.
+     */
+    private static class Entry<T> {
+        private final T value;
+        private final long expiresAt;
+
+        private Entry(T value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Construct a new EntityCache.
+     *
+     * @param name      the name of the cache in settings and metrics
+     * @param maxSize   the default maximum number of rows
+     * @param ttlMillis the default time rows are kept, in milliseconds, or 0
+     *                  to keep them until invalidated
+     */
+    public EntityCache(String name, int maxSize, int ttlMillis) {
+        this.maxSize = Math.max(1, Config.getInt("cache." + name + ".maxSize", maxSize));
+        this.ttlNanos = Config.getInt("cache." + name + ".ttlMs", ttlMillis) * 1_000_000L;
+
+        Metrics metrics = Metrics.getInstance();
+        hits = metrics.counter("jspapp_cache_lookups_total",
+                "Lookups in the caches",
+                Metrics.labels("cache", name, "result", "hit"));
+        misses = metrics.counter("jspapp_cache_lookups_total",
+                "Lookups in the caches",
+                Metrics.labels("cache", name, "result", "miss"));
+        metrics.gauge("jspapp_cache_entries", "Rows held by the entity caches",
+                Metrics.labels("cache", name), entries::size);
+    }
+
+    /**
+     * Returns the current generation. Callers read this before querying the
+     * database and pass it back when storing the result.
+     *
+     * @return the current generation
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Returns the cached row with the given key.
+     *
+     * @param key the key of the row
+     * @return the row, or null if not cached or expired
+     */
+    public T get(K key) {
+        Entry<T> entry = entries.get(key);
+        if (entry != null && isExpired(entry, System.nanoTime())) {
+            entries.remove(key, entry);
+            entry = null;
+        }
+        (entry == null ? misses : hits).increment();
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Caches a row, unless the cache was invalidated since `generation` was
+     * read.
+     *
+     * @param generation the generation read before querying the database
+     * @param key        the key of the row
+     * @param value      the row
+     */
+    public void put(long generation, K key, T value) {
+        put(generation, key, value, ttlNanos);
+    }
+
+    /**
+     * Caches a row for a shorter time than the other rows, e.g. the absence
+     * of a row, unless the cache was invalidated since `generation` was read.
+     *
+     * @param generation the generation read before querying the database
+     * @param key        the key of the row
+     * @param value      the row
+     * @param ttlMillis  the time the row is kept, in milliseconds
+     */
+    public void put(long generation, K key, T value, int ttlMillis) {
+        long ttl = ttlMillis * 1_000_000L;
+        if (ttlNanos > 0) {
+            ttl = Math.min(ttl, ttlNanos);
+        }
+        if (ttl > 0) {
+            put(generation, key, value, ttl);
+        }
+    }
+
+    private void put(long generation, K key, T value, long ttl) {
+        long now = System.nanoTime();
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            evict(now);
+        }
+        Entry<T> entry = new Entry<>(value, ttl > 0 ? now + ttl : Long.MAX_VALUE);
+        entries.put(key, entry);
+        if (this.generation.get() != generation) {
+            entries.remove(key, entry);
+        }
+    }
+
+    /**
+     * Invalidates a single row, e.g. after it has been updated or deleted.
+     *
+     * @param key the key of the changed row
+     */
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        if (key != null) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Invalidates every row.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * Makes room for a row by removing the expired rows, or an arbitrary row
+     * if none has expired.
+     */
+    private void evict(long now) {
+        boolean removed = entries.values().removeIf(entry -> isExpired(entry, now));
+        if (!removed) {
+            Iterator<K> keys = entries.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+    }
+
+    private static boolean isExpired(Entry<?> entry, long now) {
+        return entry.expiresAt != Long.MAX_VALUE && now - entry.expiresAt > 0;
+    }
+}
@@ -0,0 +1,179 @@
+package com.unimelb.swen90007.jspapp.datasource;
+
+import com.unimelb.swen90007.jspapp.metrics.Metrics;
+import com.unimelb.swen90007.jspapp.util.Deadline;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Singleton cache holding the serialized JSON responses of the public event
+ * endpoints. Listings are keyed by a string describing the query and single
+ * events by their ID.
+ * <p>
+ * Entries are never expired by time. Instead, the mappers invalidate them
+ * whenever the data they were rendered from changes. Every invalidation bumps
+ * a generation counter, and a response is only stored if no invalidation
+ * happened while it was being rendered, so a stale render can never overwrite
+ * a newer invalidation.
+ */
+public class EventCache {
+
+    /**
+     * Key of the listing containing every event.
+     */
+    public static final String ALL_EVENTS = "all";
+
+    /**
+     * Maximum number of listings kept, since clients choose the listing keys.
+     */
+    private static final int MAX_LISTINGS = 1024;
+
+    /**
+     * Singleton instance
+     */
+    private static final EventCache instance = new EventCache();
+
+    /**
+     * Serialized event listings, keyed by their query.
+     */
+    private final Map<String, byte[]> listings = new ConcurrentHashMap<>();
+
+    /**
+     * Serialized single events, keyed by event ID.
+     */
+    private final Map<Long, byte[]> events = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on every invalidation.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder listingHits = lookups("listing", "hit");
+    private final LongAdder listingMisses = lookups("listing", "miss");
+    private final LongAdder eventHits = lookups("event", "hit");
+    private final LongAdder eventMisses = lookups("event", "miss");
+
+    /**
+     * Get the singleton instance of this class.
+     *
+     * @return The singleton `EventCache` instance.
+     */
+    public static EventCache getInstance() {
+        return instance;
+    }
+
+    private EventCache() {
+    }
+
+    /**
+     * Returns the current generation. Callers read this before rendering a
+     * response and pass it back when storing the result.
+     *
+     * @return the current generation
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Returns the cached listing for the given query.
+     *
+     * @param key the listing query
+     * @return the serialized listing, or null if not cached
+     */
+    public byte[] getListing(String key) {
+        byte[] body = listings.get(key);
+        (body == null ? listingMisses : listingHits).increment();
+        return body;
+    }
+
+    /**
+     * Caches a rendered listing, unless the cache was invalidated since
+     * `generation` was read, the cache already holds too many listings or the
+     * listing may be incomplete because the request exceeded its deadline.
+     *
+     * @param generation the generation read before rendering
+     * @param key        the listing query
+     * @param body       the serialized listing
+     */
+    public void putListing(long generation, String key, byte[] body) {
+        if (listings.size() >= MAX_LISTINGS || Deadline.isExceeded()) {
+            return;
+        }
+        listings.put(key, body);
+        if (this.generation.get() != generation) {
+            listings.remove(key, body);
+        }
+    }
+
+    /**
+     * Returns the cached representation of a single event.
+     *
+     * @param id the ID of the event
+     * @return the serialized event, or null if not cached
+     */
+    public byte[] getEvent(Long id) {
+        byte[] body = events.get(id);
+        (body == null ? eventMisses : eventHits).increment();
+        return body;
+    }
+
+    /**
+     * Caches a rendered event, unless the cache was invalidated since
+     * `generation` was read or the event may be incomplete because the
+     * request exceeded its deadline.
+     *
+     * @param generation the generation read before rendering
+     * @param id         the ID of the event
+     * @param body       the serialized event
+     */
+    public void putEvent(long generation, Long id, byte[] body) {
+        if (Deadline.isExceeded()) {
+            return;
+        }
+        events.put(id, body);
+        if (this.generation.get() != generation) {
+            events.remove(id, body);
+        }
+    }
+
+    /**
+     * Invalidates the listings, e.g. after an event has been created.
+     */
+    public void invalidateListings() {
+        generation.incrementAndGet();
+        listings.clear();
+    }
+
+    /**
+     * Invalidates a single event and every listing that may contain it.
+     *
+     * @param id the ID of the changed event
+     */
+    public void invalidateEvent(Long id) {
+        generation.incrementAndGet();
+        if (id != null) {
+            events.remove(id);
+        }
+        listings.clear();
+    }
+
+    /**
+     * Invalidates everything, e.g. after a club or venue shown in many events
+     * has changed.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        events.clear();
+        listings.clear();
+    }
+
+    private static LongAdder lookups(String cache, String result) {
+        return Metrics.getInstance().counter("jspapp_cache_lookups_total",
+                "Lookups in the caches",
+                Metrics.labels("cache", cache, "result", result));
+    }
+}
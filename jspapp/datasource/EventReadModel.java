@@ -0,0 +1,167 @@
+package com.unimelb.swen90007.jspapp.datasource;
+
+import java.sql.SQLException;
+
+/**
+ * Maintains the EventCatalog table, a denormalized copy of each event along
+ * with the name of its club and the details of its venue, so that event
+ * listings and single events are read from one table without joins.
+ * <p>
+ * Writes still go to the normalized tables. The mappers then refresh the
+ * affected catalog rows on the same connection, inside the transaction of
+ * the write when there is one:
+ * <ul>
+ *     <li>{@link #refreshEvent} after an event is inserted or updated,
+ *     which includes attendee counts changed by tickets.</li>
+ *     <li>{@link #refreshClub} after a club is updated.</li>
+ *     <li>{@link #refreshVenue} after a venue is updated.</li>
+ * </ul>
+ * Every write to a row gives it a new revision from a sequence. Writes to
+ * the same row wait for each other's row lock and take their revision once
+ * they hold it, so the revisions of a row increase in commit order, whether
+ * the event, its club or its venue changed. The in-memory copies of the
+ * catalog use them to tell which of two reads of a row is newer.
+ * <p>
+ * Deleted events are removed from the catalog by its foreign key. The
+ * catalog is filled on startup by {@link DatabaseSchema} while it is empty,
+ * e.g. just after it was created. Setting "db.rebuildCatalog" rebuilds it
+ * on every startup instead, which repairs rows changed outside of the
+ * application.
+ */
+public class EventReadModel {
+
+    /**
+     * Reads catalog rows from the normalized tables.
+     */
+    private static final String PROJECTION = """
+            SELECT e.eventID, e.title, e.description, e.dateTime, e.cancelled,
+                   e.attenders, e.version, e.clubID, c.name, e.venueID,
+                   v.location, v.address, v.capacity
+            FROM Events e
+            JOIN StudentClubs c ON c.clubID = e.clubID
+            JOIN Venues v ON v.venueID = e.venueID
+            """;
+
+    private static final String UPSERT = """
+            INSERT INTO EventCatalog (eventID, title, description, dateTime,
+                                      cancelled, attenders, version, clubID,
+                                      clubName, venueID, venueType, address,
+                                      capacity)
+            %s
+            ON CONFLICT (eventID) DO UPDATE
+            SET title = EXCLUDED.title, description = EXCLUDED.description,
+                dateTime = EXCLUDED.dateTime, cancelled = EXCLUDED.cancelled,
+                attenders = EXCLUDED.attenders, version = EXCLUDED.version,
+                clubID = EXCLUDED.clubID, clubName = EXCLUDED.clubName,
+                venueID = EXCLUDED.venueID, venueType = EXCLUDED.venueType,
+                address = EXCLUDED.address, capacity = EXCLUDED.capacity,
+                revision = nextval('eventcatalog_revision_seq')
+            """;
+
+    /**
+     * Creates the sequence numbering the writes to catalog rows.
+     */
+    static final String CREATE_REVISIONS = """
+            CREATE SEQUENCE IF NOT EXISTS eventcatalog_revision_seq
+            """;
+
+    /**
+     * Creates the catalog table.
+     */
+    static final String CREATE = """
+            CREATE TABLE IF NOT EXISTS EventCatalog (
+                eventID BIGINT PRIMARY KEY REFERENCES Events ON DELETE CASCADE,
+                title TEXT NOT NULL,
+                description TEXT,
+                dateTime TIMESTAMP NOT NULL,
+                cancelled BOOLEAN NOT NULL,
+                attenders INTEGER NOT NULL,
+                version INTEGER NOT NULL,
+                clubID BIGINT NOT NULL,
+                clubName TEXT NOT NULL,
+                venueID BIGINT NOT NULL,
+                venueType TEXT NOT NULL,
+                address TEXT,
+                capacity INTEGER,
+                revision BIGINT NOT NULL DEFAULT nextval('eventcatalog_revision_seq')
+            )
+            """;
+
+    /**
+     * Adds the revision column to catalogs created without it.
+     */
+    static final String ADD_REVISION = """
+            ALTER TABLE EventCatalog ADD COLUMN IF NOT EXISTS revision BIGINT
+            NOT NULL DEFAULT nextval('eventcatalog_revision_seq')
+            """;
+
+    /**
+     * Copies every event into the catalog.
+     */
+    static final String REBUILD = UPSERT.formatted(PROJECTION);
+
+    /**
+     * Copies every event into the catalog, only if it is empty.
+     */
+    static final String POPULATE = UPSERT.formatted(PROJECTION
+            + "WHERE NOT EXISTS (SELECT 1 FROM EventCatalog)");
+
+    private static final String REFRESH_EVENT =
+            UPSERT.formatted(PROJECTION + "WHERE e.eventID = ?");
+
+    private EventReadModel() {
+    }
+
+    /**
+     * Copies an event into the catalog, after it has been inserted or
+     * updated.
+     *
+     * @param conn    the connection the event was written with
+     * @param eventID the ID of the event
+     * @throws SQLException if the catalog could not be updated
+     */
+    public static void refreshEvent(DBConnection conn, Long eventID) throws SQLException {
+        conn.update(REFRESH_EVENT, eventID);
+    }
+
+    /**
+     * Copies the name of a club into the catalog rows of its events, after
+     * the club has been updated.
+     *
+     * @param conn   the connection the club was written with
+     * @param clubID the ID of the club
+     * @throws SQLException if the catalog could not be updated
+     */
+    public static void refreshClub(DBConnection conn, Long clubID) throws SQLException {
+        conn.update(
+                """
+                        UPDATE EventCatalog ec
+                        SET clubName = c.name,
+                            revision = nextval('eventcatalog_revision_seq')
+                        FROM StudentClubs c
+                        WHERE c.clubID = ? AND ec.clubID = c.clubID
+                        """,
+                clubID);
+    }
+
+    /**
+     * Copies the details of a venue into the catalog rows of the events held
+     * there, after the venue has been updated.
+     *
+     * @param conn    the connection the venue was written with
+     * @param venueID the ID of the venue
+     * @throws SQLException if the catalog could not be updated
+     */
+    public static void refreshVenue(DBConnection conn, Long venueID) throws SQLException {
+        conn.update(
+                """
+                        UPDATE EventCatalog ec
+                        SET venueType = v.location, address = v.address,
+                            capacity = v.capacity,
+                            revision = nextval('eventcatalog_revision_seq')
+                        FROM Venues v
+                        WHERE v.venueID = ? AND ec.venueID = v.venueID
+                        """,
+                venueID);
+    }
+}
@@ -0,0 +1,86 @@
+package com.unimelb.swen90007.jspapp.datasource;
+
+import java.util.List;
+
+/**
+ * A single page of results from a keyset-paginated finder.
+ *
+ * @param <T> the type of the items
+ */
+public class Page<T> {
+
+    /**
+     * Page size used when the client does not ask for one.
+     */
+    public static final int DEFAULT_LIMIT = 20;
+
+    /**
+     * Largest page size a client may ask for.
+     */
+    public static final int MAX_LIMIT = 100;
+
+    /**
+     * The items on this page.
+     */
+    private final List<T> items;
+
+    /**
+     * Cursor to request the following page with, or null if this is the last
+     * page.
+     */
+    private final String next;
+
+    /**
+     * Constructs a new page.
+     *
+     * @param items the items on this page
+     * @param next  the cursor of the following page, or null if none
+     */
+    public Page(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    /**
+     * Parses a page size requested by a client, clamping it to
+     * {@link #MAX_LIMIT}.
+     *
+     * @param limit the requested page size, or null for the default
+     * @return the page size to use
+     * @throws IllegalArgumentException if the page size is not a positive
+     *                                  integer
+     */
+    public static int parseLimit(String limit) {
+        if (limit == null || limit.isBlank()) {
+            return DEFAULT_LIMIT;
+        }
+        int value;
+        try {
+            value = Integer.parseInt(limit.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page size", e);
+        }
+        if (value <= 0) {
+            throw new IllegalArgumentException("Invalid page size");
+        }
+        return Math.min(value, MAX_LIMIT);
+    }
+
+    /**
+     * Returns the items on this page.
+     *
+     * @return the items
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Returns the cursor of the following page.
+     *
+     * @return the cursor, or null if this is the last page
+     */
+    public String getNext() {
+        return next;
+    }
+}
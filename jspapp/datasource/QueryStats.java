@@ -0,0 +1,98 @@
+package com.unimelb.swen90007.jspapp.datasource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements run while handling a request. Statistics are
+ * collected per thread between {@link #begin()} and {@link #end()}; statements
+ * run outside of a request are not counted.
+ */
+public class QueryStats {
+
+    /**
+     * Thread-local variable holding the statistics of the current request.
+     */
+    private static final ThreadLocal<QueryStats> current = new ThreadLocal<>();
+
+    /**
+     * Number of executions of each SQL text.
+     */
+    private final Map<String, Integer> statements = new HashMap<>();
+
+    private int count;
+    private long totalNanos;
+
+    /**
+     * Starts collecting statistics for the current thread.
+     *
+     * @return the statistics being collected
+     */
+    public static QueryStats begin() {
+        QueryStats stats = new QueryStats();
+        current.set(stats);
+        return stats;
+    }
+
+    /**
+     * Stops collecting statistics for the current thread.
+     */
+    public static void end() {
+        current.remove();
+    }
+
+    /**
+     * Records a statement run by the current thread, if statistics are being
+     * collected.
+     *
+     * @param sql   the SQL text of the statement
+     * @param nanos the time the statement took, in nanoseconds
+     */
+    static void record(String sql, long nanos) {
+        QueryStats stats = current.get();
+        if (stats != null) {
+            stats.count++;
+            stats.totalNanos += nanos;
+            stats.statements.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * @return the number of statements run
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the total time spent running statements, in milliseconds
+     */
+    public long getTotalMillis() {
+        return totalNanos / 1_000_000;
+    }
+
+    /**
+     * @return the number of different SQL texts run
+     */
+    public int getDistinctCount() {
+        return statements.size();
+    }
+
+    /**
+     * @return the SQL text run the most often, or null if none was run
+     */
+    public String getMostRepeated() {
+        return statements.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(null);
+    }
+
+    /**
+     * @param sql an SQL text
+     * @return the number of times the SQL text was run
+     */
+    public int getCount(String sql) {
+        return statements.getOrDefault(sql, 0);
+    }
+}
@@ -0,0 +1,175 @@
+package com.unimelb.swen90007.jspapp.datasource;
+
+import com.unimelb.swen90007.jspapp.util.Config;
+import org.apache.logging.log4j.LogManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Logs the statements taking longer than "query.slowThresholdMs" (200 ms by
+ * default), with their parameters, duration and the mapper method that ran
+ * them. Parameters bound to password, token and email columns are redacted.
+ * <p>
+ * When "query.explain" is enabled, the plan of the first slow run of each
+ * SELECT statement is also logged, using EXPLAIN (ANALYZE, BUFFERS). This runs
+ * the query a second time, so it is meant for sampling rather than for
+ * normal operation.
+ */
+class SlowQueryLog {
+
+    private static final long THRESHOLD_NANOS =
+            Config.getInt("query.slowThresholdMs", 200) * 1_000_000L;
+    private static final boolean EXPLAIN = Config.getBoolean("query.explain", false);
+
+    /**
+     * Maximum number of statements explained, since queries built from
+     * filters can take many shapes.
+     */
+    private static final int MAX_EXPLAINED = 1000;
+
+    private static final Pattern SENSITIVE = Pattern.compile(
+            "password|token|email", Pattern.CASE_INSENSITIVE);
+    private static final Pattern COMPARED_COLUMN = Pattern.compile(
+            "(\\w+)\\s*(?:=|<>|!=|<=|>=|<|>|(?i:like))\\s*$");
+    private static final Pattern INSERTED_COLUMNS = Pattern.compile(
+            "INSERT\\s+INTO\\s+\\w+\\s*\\(([^)]*)\\)\\s*VALUES\\s*\\(",
+            Pattern.CASE_INSENSITIVE);
+    private static final int MAX_VALUE_LENGTH = 64;
+
+    /**
+     * The statements already explained.
+     */
+    private static final Set<String> explained = ConcurrentHashMap.newKeySet();
+
+    private SlowQueryLog() {
+    }
+
+    /**
+     * Logs a statement if it was slow.
+     *
+     * @param connection the connection the statement ran on
+     * @param sql        the SQL text of the statement
+     * @param params     the parameters of the statement
+     * @param nanos      the time the statement took, in nanoseconds
+     * @param succeeded  whether the statement completed without error
+     */
+    static void check(Connection connection, String sql, Object[] params,
+                      long nanos, boolean succeeded) {
+        if (nanos < THRESHOLD_NANOS) {
+            return;
+        }
+        String shape = sql.strip().replaceAll("\\s+", " ");
+        LogManager.getLogger().warn("Slow query (" + nanos / 1_000_000
+                + " ms) in " + findCaller() + ": " + shape
+                + " with parameters " + describeParameters(sql, params));
+
+        if (EXPLAIN && succeeded
+                && shape.regionMatches(true, 0, "SELECT", 0, 6)
+                && explained.size() < MAX_EXPLAINED && explained.add(shape)) {
+            explain(connection, sql, params, shape);
+        }
+    }
+
+    /**
+     * Logs the plan of a statement. Skipped inside transactions, where a
+     * failing EXPLAIN would abort the transaction.
+     */
+    private static void explain(Connection connection, String sql,
+                                Object[] params, String shape) {
+        try {
+            if (!connection.getAutoCommit()) {
+                return;
+            }
+            StringBuilder plan = new StringBuilder();
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    stmt.setObject(i + 1, params[i]);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        plan.append('\n').append(rs.getString(1));
+                    }
+                }
+            }
+            LogManager.getLogger().warn("Plan of " + shape + ":" + plan);
+        } catch (SQLException e) {
+            LogManager.getLogger().error("Unable to explain " + shape, e);
+        }
+    }
+
+    /**
+     * Returns the mapper method that ran the current statement.
+     */
+    private static String findCaller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> f.getClassName().contains(".datamapper."))
+                .findFirst()
+                .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1)
+                        + "." + f.getMethodName())
+                .orElse("unknown caller"));
+    }
+
+    /**
+     * Formats the parameters of a statement, redacting those bound to a
+     * sensitive column.
+     */
+    private static String describeParameters(String sql, Object[] params) {
+        List<String> columns = placeholderColumns(sql);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < params.length; i++) {
+            String column = i < columns.size() ? columns.get(i) : null;
+            if (column != null && SENSITIVE.matcher(column).find()) {
+                values.add("[redacted]");
+            } else if (params[i] instanceof String value) {
+                values.add("'" + (value.length() > MAX_VALUE_LENGTH
+                        ? value.substring(0, MAX_VALUE_LENGTH) + "..." : value) + "'");
+            } else {
+                values.add(String.valueOf(params[i]));
+            }
+        }
+        return values.toString();
+    }
+
+    /**
+     * Returns the column each placeholder of a statement is bound to, or null
+     * where it cannot be told. Placeholders are matched to the column they
+     * are compared with, or to their position in the column list of an
+     * INSERT.
+     */
+    private static List<String> placeholderColumns(String sql) {
+        List<String> columns = new ArrayList<>();
+        Matcher insert = INSERTED_COLUMNS.matcher(sql);
+        String[] inserted = null;
+        int valuesStart = sql.length();
+        if (insert.find()) {
+            inserted = insert.group(1).split(",");
+            valuesStart = insert.end();
+        }
+
+        int insertedIndex = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) != '?') {
+                continue;
+            }
+            if (inserted != null && i >= valuesStart && insertedIndex < inserted.length) {
+                columns.add(inserted[insertedIndex++].trim().toLowerCase(Locale.ROOT));
+            } else {
+                Matcher compared = COMPARED_COLUMN.matcher(
+                        sql.substring(Math.max(0, i - MAX_VALUE_LENGTH), i));
+                columns.add(compared.find() ? compared.group(1) : null);
+            }
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,266 @@
+package com.unimelb.swen90007.jspapp.datasource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Singleton in-memory prefix index over event titles and club names, used to
+ * answer typeahead queries without going to the database.
+ * <p>
+ * Every title is indexed once per word, under the lower-cased text starting at
+ * that word, so "jazz" matches "Friday Jazz Night". The keys are kept in a
+ * sorted array and looked up by binary search. Writers build a new array and
+ * publish it atomically, so readers never lock.
+ */
+public class TypeaheadIndex {
+
+    /**
+     * The kinds of indexed items.
+     */
+    public enum Kind {
+        EVENT, CLUB
+    }
+
+    /**
+     * A typeahead suggestion.
+     */
+    public static class Suggestion {
+        private final Kind kind;
+        private final long id;
+        private final String text;
+
+        private Suggestion(Kind kind, long id, String text) {
+            this.kind = kind;
+            this.id = id;
+            this.text = text;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+
+    /**
+     * An index key pointing at the item it was derived from.
+     */
+    private static class Entry implements Comparable<Entry> {
+        private final String key;
+        private final Suggestion item;
+
+        private Entry(String key, Suggestion item) {
+            this.key = key;
+            this.item = item;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return key.compareTo(other.key);
+        }
+    }
+
+    /**
+     * Singleton instance
+     */
+    private static final TypeaheadIndex instance = new TypeaheadIndex();
+
+    /**
+     * The index entries, sorted by key. Replaced, never modified.
+     */
+    private volatile Entry[] entries = new Entry[0];
+
+    /**
+     * Get the singleton instance of this class.
+     *
+     * @return The singleton `TypeaheadIndex` instance.
+     */
+    public static TypeaheadIndex getInstance() {
+        return instance;
+    }
+
+    private TypeaheadIndex() {
+    }
+
+    /**
+     * Replaces the whole index.
+     *
+     * @param eventTitles the titles of every event, keyed by event ID
+     * @param clubNames   the names of every club, keyed by club ID
+     */
+    public synchronized void rebuild(Map<Long, String> eventTitles,
+                                     Map<Long, String> clubNames) {
+        List<Entry> all = new ArrayList<>();
+        eventTitles.forEach((id, title) -> all.addAll(entriesFor(Kind.EVENT, id, title)));
+        clubNames.forEach((id, name) -> all.addAll(entriesFor(Kind.CLUB, id, name)));
+        Entry[] sorted = all.toArray(new Entry[0]);
+        Arrays.sort(sorted);
+        entries = sorted;
+    }
+
+    /**
+     * Adds or replaces the title of an event.
+     *
+     * @param id    the ID of the event
+     * @param title the title of the event
+     */
+    public void putEvent(Long id, String title) {
+        put(Kind.EVENT, id, title);
+    }
+
+    /**
+     * Removes an event from the index.
+     *
+     * @param id the ID of the event
+     */
+    public void removeEvent(Long id) {
+        put(Kind.EVENT, id, null);
+    }
+
+    /**
+     * Adds or replaces the name of a club.
+     *
+     * @param id   the ID of the club
+     * @param name the name of the club
+     */
+    public void putClub(Long id, String name) {
+        put(Kind.CLUB, id, name);
+    }
+
+    /**
+     * Removes a club from the index.
+     *
+     * @param id the ID of the club
+     */
+    public void removeClub(Long id) {
+        put(Kind.CLUB, id, null);
+    }
+
+    /**
+     * Finds the items with a word starting with the given prefix, in
+     * alphabetical order of the matching text.
+     *
+     * @param prefix the prefix typed by the user
+     * @param limit  the maximum number of suggestions
+     * @return the suggestions
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        List<Suggestion> suggestions = new ArrayList<>();
+        if (key.isEmpty()) {
+            return suggestions;
+        }
+
+        // Binary search for the first key not less than the prefix
+        Entry[] snapshot = entries;
+        int low = 0;
+        int high = snapshot.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (snapshot[mid].key.compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        // Items matching on several words appear once
+        Set<Suggestion> seen = new HashSet<>();
+        for (int i = low; i < snapshot.length && suggestions.size() < limit; i++) {
+            if (!snapshot[i].key.startsWith(key)) {
+                break;
+            }
+            if (seen.add(snapshot[i].item)) {
+                suggestions.add(snapshot[i].item);
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Replaces the entries of an item by merging its new entries into a copy
+     * of the index.
+     *
+     * @param kind the kind of the item
+     * @param id   the ID of the item
+     * @param text the new text of the item, or null to remove it
+     */
+    private synchronized void put(Kind kind, Long id, String text) {
+        if (id == null) {
+            return;
+        }
+        Entry[] current = entries;
+        List<Entry> added = text == null ? List.of() : entriesFor(kind, id, text);
+        Entry[] addedSorted = added.toArray(new Entry[0]);
+        Arrays.sort(addedSorted);
+
+        Entry[] merged = new Entry[current.length + addedSorted.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < current.length || j < addedSorted.length) {
+            if (i < current.length && current[i].item.kind == kind
+                    && current[i].item.id == id) {
+                i++;
+            } else if (j == addedSorted.length || (i < current.length
+                    && current[i].compareTo(addedSorted[j]) <= 0)) {
+                merged[n++] = current[i++];
+            } else {
+                merged[n++] = addedSorted[j++];
+            }
+        }
+        entries = Arrays.copyOf(merged, n);
+    }
+
+    /**
+     * Creates one entry per word of the text.
+     */
+    private static List<Entry> entriesFor(Kind kind, Long id, String text) {
+        List<Entry> result = new ArrayList<>();
+        if (text == null) {
+            return result;
+        }
+        Suggestion item = new Suggestion(kind, id, text);
+        String normalized = normalize(text);
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                result.add(new Entry(normalized.substring(i), item));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lower-cases text and collapses everything but letters and digits into
+     * single spaces.
+     */
+    private static String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int length = sb.length();
+        if (length > 0 && sb.charAt(length - 1) == ' ') {
+            sb.setLength(length - 1);
+        }
+        return sb.toString();
+    }
+}
@@ -3,6 +3,7 @@ package com.unimelb.swen90007.jspapp.datasource.datamapper;
 import com.unimelb.swen90007.jspapp.domain.*;
 
 import java.sql.SQLException;
+import java.util.Map;
 
 /**
  * Abstract base class for data mappers, providing methods to interact with
@@ -11,39 +12,56 @@ import java.sql.SQLException;
  */
 public abstract class DataMapper {
 
+    /**
+     * The mapper of each domain class. Mappers hold no state, so a single
+     * instance of each is shared by all callers.
+     */
+    private static final Map<Class<? extends DomainObject>, DataMapper> mappers =
+            Map.of(
+                    StudentClub.class, new StudentClubMapper(),
+                    Event.class, new EventMapper(),
+                    FacultyAdmin.class, new FacultyAdminMapper(),
+                    Rsvp.class, new RsvpMapper(),
+                    Student.class, new StudentMapper(),
+                    Ticket.class, new TicketMapper(),
+                    Venue.class, new VenueMapper(),
+                    FundingApplication.class, new FundingApplicationMapper());
+
     /**
      * Retrieves the appropriate DataMapper for a given domain object class.
      *
      * @param clazz the class of the domain object
-     * @return a DataMapper instance for the specified domain object class
+     * @return the DataMapper instance for the specified domain object class
      * @throws RuntimeException if no mapper is implemented for the provided
      *                          class
      */
     public static DataMapper getMapper(Class<? extends DomainObject> clazz) {
-        if (clazz.equals(StudentClub.class)) {
-            return new StudentClubMapper();
-        } else if (clazz.equals(Event.class)) {
-            return new EventMapper();
-        } else if (clazz.equals(FacultyAdmin.class)) {
-            return new FacultyAdminMapper();
-        } else if (clazz.equals(Rsvp.class)) {
-            return new RsvpMapper();
-        } else if (clazz.equals(Student.class)) {
-            return new StudentMapper();
-        } else if (clazz.equals(Ticket.class)) {
-            return new TicketMapper();
-        } else if (clazz.equals(Venue.class)) {
-            return new VenueMapper();
-        } else if (clazz.equals(FundingApplication.class)) {
-            return new FundingApplicationMapper();
+        DataMapper mapper = mappers.get(clazz);
+        if (mapper == null) {
+            throw new RuntimeException("Mapper unimplemented for "
+                    + clazz.getName());
         }
+        return mapper;
+    }
 
+    /**
+     * Returns how the table of this mapper is loaded into domain objects.
+     *
+     * @return the row mapping of this mapper
+     */
+    protected abstract RowMapping<?> getRowMapping();
 
-        throw new RuntimeException("Mapper unimplemented for "
-                + clazz.getName());
+    /**
+     * Loads the fields of a domain object that are not set yet from its row,
+     * in a single query. Lazy getters call this when their field is not set.
+     *
+     * @param obj the domain object to load, with its ID set
+     * @return whether the row of the domain object was found
+     */
+    public boolean load(DomainObject obj) {
+        return getRowMapping().load(obj);
     }
 
-
     /**
      * Inserts a new domain object into the data store.
      *
@@ -0,0 +1,607 @@
+package com.unimelb.swen90007.jspapp.datasource.datamapper;
+
+import com.unimelb.swen90007.jspapp.datasource.ConnectionPool;
+import com.unimelb.swen90007.jspapp.datasource.DBConnection;
+import com.unimelb.swen90007.jspapp.datasource.EventReadModel;
+import com.unimelb.swen90007.jspapp.datasource.Page;
+import com.unimelb.swen90007.jspapp.domain.EventSummary;
+import com.unimelb.swen90007.jspapp.metrics.Metrics;
+import com.unimelb.swen90007.jspapp.util.Config;
+import com.unimelb.swen90007.jspapp.util.ConnectionUnavailableException;
+import com.unimelb.swen90007.jspapp.util.Cursor;
+import org.apache.logging.log4j.LogManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Singleton in-memory copy of the EventCatalog table, stored column-wise and
+ * ordered by date and time, so that {@link EventMapper} can browse events
+ * without going to the database.
+ * <p>
+ * Each column is a primitive array indexed by row, and venue types are
+ * dictionary-encoded into bytes, so a scan only reads the arrays of the
+ * criteria it checks and allocates nothing per row. Date ranges and cursors
+ * are located by binary search. Only the rows returned are turned into
+ * {@link EventSummary} objects.
+ * <p>
+ * The columns are loaded by {@link EventMapper#loadColumns()} on startup.
+ * The mappers then re-read the catalog rows they change, on the connection
+ * they wrote with and after committing. Writers build new arrays and publish
+ * them atomically, as in the typeahead index, so readers never lock.
+ * <p>
+ * Rows are read without holding the lock, and only merged under it, so
+ * concurrent writers may merge their reads in any order. A row is therefore
+ * never replaced by one with an older catalog revision, which orders event,
+ * club and venue changes alike, see {@link EventReadModel}. The IDs of
+ * deleted events and clubs are remembered, so that a read made before a
+ * deletion cannot bring the events back. Rows refreshed while the columns are
+ * being rebuilt are merged into the rebuilt columns.
+ * <p>
+ * If a row cannot be re-read, e.g. because the request ran out of time, the
+ * columns are dropped, so that events are browsed in the database, and
+ * reloaded in the background after "columns.reloadDelayMs" milliseconds.
+ * Every change is also applied to the {@link UpcomingEvents} index.
+ */
+class EventColumns {
+
+    private static final String SELECT = """
+            SELECT eventID, dateTime, clubID, attenders, capacity, cancelled,
+                   venueType, title, description, clubName, address, revision
+            FROM EventCatalog
+            """;
+
+    /**
+     * Singleton instance
+     */
+    private static final EventColumns instance = new EventColumns();
+
+    private static final int RELOAD_DELAY_MS =
+            Math.max(1, Config.getInt("columns.reloadDelayMs", 1000));
+
+    /**
+     * A catalog row, only used while loading and merging rows.
+     */
+    private record Row(long id, long dateTime, long clubId, int attenders,
+                       int capacity, boolean cancelled,
+                       String venueType, String title, String description,
+                       String clubName, String address, long revision) {
+    }
+
+    private static final Comparator<Row> ORDER =
+            Comparator.comparingLong(Row::dateTime).thenComparingLong(Row::id);
+
+    /**
+     * An immutable set of columns. Venue types are stored as indexes into
+     * {@link #venueTypeNames}, and unknown capacities as -1, which no
+     * attendee count is below.
+     */
+    private static class Columns {
+        private final int size;
+        private final long[] ids;
+        private final long[] dateTimes;
+        private final long[] clubIds;
+        private final int[] attenders;
+        private final int[] capacities;
+        private final long[] revisions;
+        private final boolean[] cancelled;
+        private final byte[] venueTypes;
+        private final String[] venueTypeNames;
+        private final String[] titles;
+        private final String[] descriptions;
+        private final String[] clubNames;
+        private final String[] addresses;
+
+        private Columns(int size, String[] venueTypeNames) {
+            this.size = size;
+            this.venueTypeNames = venueTypeNames;
+            ids = new long[size];
+            dateTimes = new long[size];
+            clubIds = new long[size];
+            attenders = new int[size];
+            capacities = new int[size];
+            revisions = new long[size];
+            cancelled = new boolean[size];
+            venueTypes = new byte[size];
+            titles = new String[size];
+            descriptions = new String[size];
+            clubNames = new String[size];
+            addresses = new String[size];
+        }
+
+        /**
+         * Copies row `from` of other columns into row `to`.
+         */
+        private void copy(Columns other, int from, int to) {
+            ids[to] = other.ids[from];
+            dateTimes[to] = other.dateTimes[from];
+            clubIds[to] = other.clubIds[from];
+            attenders[to] = other.attenders[from];
+            capacities[to] = other.capacities[from];
+            revisions[to] = other.revisions[from];
+            cancelled[to] = other.cancelled[from];
+            venueTypes[to] = other.venueTypes[from];
+            titles[to] = other.titles[from];
+            descriptions[to] = other.descriptions[from];
+            clubNames[to] = other.clubNames[from];
+            addresses[to] = other.addresses[from];
+        }
+
+        private void set(Row row, int to, byte venueType) {
+            ids[to] = row.id();
+            dateTimes[to] = row.dateTime();
+            clubIds[to] = row.clubId();
+            attenders[to] = row.attenders();
+            capacities[to] = row.capacity();
+            revisions[to] = row.revision();
+            cancelled[to] = row.cancelled();
+            venueTypes[to] = venueType;
+            titles[to] = row.title();
+            descriptions[to] = row.description();
+            clubNames[to] = row.clubName();
+            addresses[to] = row.address();
+        }
+
+        /**
+         * Returns the index of the first row after (dateTime, id), or of the
+         * first row at or after it if `inclusive`.
+         */
+        private int search(long dateTime, long id, boolean inclusive) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = dateTimes[mid] != dateTime
+                        ? Long.compare(dateTimes[mid], dateTime)
+                        : Long.compare(ids[mid], id);
+                if (cmp < 0 || (cmp == 0 && !inclusive)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private EventSummary summary(int i) {
+            return new EventSummary(ids[i], titles[i], dateTimes[i],
+                    clubNames[i], addresses[i], attenders[i], descriptions[i]);
+        }
+    }
+
+    /**
+     * Selects the rows of columns affected by a change.
+     */
+    private interface RowFilter {
+        boolean test(Columns columns, int row);
+    }
+
+    /**
+     * The current columns, or null until loaded. Replaced, never modified.
+     */
+    private volatile Columns columns;
+
+    /**
+     * The rows refreshed since the current rebuild started reading, or null
+     * if no rebuild is in progress. Guarded by this.
+     */
+    private List<Row> pending;
+
+    /**
+     * The IDs of the deleted events and clubs. Guarded by this.
+     */
+    private final Set<Long> removedEvents = new HashSet<>();
+    private final Set<Long> removedClubs = new HashSet<>();
+
+    /**
+     * Whether a reload is scheduled, and whether the columns were closed for
+     * good. Guarded by this.
+     */
+    private boolean reloadScheduled;
+    private boolean closed;
+
+    /**
+     * The number of times the columns were dropped after a failed refresh, so
+     * that a rebuild that may have missed the change is not published.
+     * Guarded by this.
+     */
+    private int drops;
+
+    /**
+     * Only one rebuild reads the catalog at a time.
+     */
+    private final Object rebuildLock = new Object();
+
+    private final ScheduledExecutorService reloader =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "event-columns-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final LongAdder reloads = Metrics.getInstance().counter(
+            "jspapp_event_columns_reloads_total",
+            "Reloads of the event columns after a failed refresh", "");
+
+    /**
+     * Get the singleton instance of this class.
+     *
+     * @return The singleton `EventColumns` instance.
+     */
+    static EventColumns getInstance() {
+        return instance;
+    }
+
+    private EventColumns() {
+    }
+
+    /**
+     * @return whether the columns have been loaded and can be browsed
+     */
+    boolean isLoaded() {
+        return columns != null;
+    }
+
+    /**
+     * Loads every row from the primary database.
+     *
+     * @return whether the columns were loaded
+     */
+    boolean load() {
+        DBConnection conn = null;
+
+        try {
+            conn = ConnectionPool.getInstance().getConnection();
+            rebuild(conn);
+            return true;
+        } catch (SQLException | ConnectionUnavailableException e) {
+            LogManager.getLogger().error("Unable to load event columns", e);
+            return false;
+        } finally {
+            ConnectionPool.getInstance().releaseConnection(conn);
+        }
+    }
+
+    /**
+     * Replaces every row with the catalog read from the database, along with
+     * the rows refreshed while it was being read.
+     *
+     * @param conn the connection to read with
+     * @throws SQLException if the catalog could not be read
+     */
+    void rebuild(DBConnection conn) throws SQLException {
+        synchronized (rebuildLock) {
+            int dropsBefore;
+            synchronized (this) {
+                pending = new ArrayList<>();
+                dropsBefore = drops;
+            }
+            List<Row> rows;
+            try {
+                rows = read(conn.execute(SELECT));
+            } catch (SQLException e) {
+                synchronized (this) {
+                    pending = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                if (!closed && drops == dropsBefore) {
+                    UpcomingEvents.getInstance().clear();
+                    Columns loaded = merge(new Columns(0, new String[0]), (c, i) -> false, rows);
+                    columns = merge(loaded, (c, i) -> false, pending);
+                    UpcomingEvents.getInstance().start();
+                }
+                pending = null;
+            }
+        }
+    }
+
+    /**
+     * Drops every row for good, e.g. when the application is undeployed, and
+     * stops the upcoming events index.
+     */
+    synchronized void close() {
+        closed = true;
+        columns = null;
+        reloader.shutdownNow();
+        UpcomingEvents.getInstance().stop();
+    }
+
+    /**
+     * Re-reads the row of an event, after it has been inserted or updated.
+     *
+     * @param conn    the connection the event was written with
+     * @param eventID the ID of the event
+     */
+    void refreshEvent(DBConnection conn, long eventID) {
+        refresh(conn, "WHERE eventID = ?", eventID);
+    }
+
+    /**
+     * Re-reads the rows of the events of a club, after it has been updated.
+     *
+     * @param conn   the connection the club was written with
+     * @param clubID the ID of the club
+     */
+    void refreshClub(DBConnection conn, long clubID) {
+        refresh(conn, "WHERE clubID = ?", clubID);
+    }
+
+    /**
+     * Re-reads the rows of the events held at a venue, after it has been
+     * updated.
+     *
+     * @param conn    the connection the venue was written with
+     * @param venueID the ID of the venue
+     */
+    void refreshVenue(DBConnection conn, long venueID) {
+        refresh(conn, "WHERE venueID = ?", venueID);
+    }
+
+    /**
+     * Removes a deleted event.
+     *
+     * @param eventID the ID of the event
+     */
+    synchronized void removeEvent(long eventID) {
+        removedEvents.add(eventID);
+        replace((c, i) -> c.ids[i] == eventID, List.of());
+    }
+
+    /**
+     * Removes the events of a deleted club.
+     *
+     * @param clubID the ID of the club
+     */
+    synchronized void removeClub(long clubID) {
+        removedClubs.add(clubID);
+        replace((c, i) -> c.clubIds[i] == clubID, List.of());
+    }
+
+    /**
+     * Finds a page of the events matching a filter, ordered by date and time,
+     * with the same results as the database query of {@link EventMapper}.
+     *
+     * @param filter the criteria the events must match
+     * @param cursor the cursor returned with the previous page, or null for
+     *               the first page
+     * @param limit  the maximum number of events to return
+     * @return the page of events, or null if the columns are not loaded
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    Page<EventSummary> findPage(EventFilter filter, String cursor, int limit) {
+        Columns c = columns;
+        if (c == null) {
+            return null;
+        }
+        List<EventSummary> events = new ArrayList<>();
+
+        // Locate the first row in range by binary search
+        int start = 0;
+        if (filter.getFrom() != null) {
+            start = c.search(filter.getFrom(), Long.MIN_VALUE, true);
+        }
+        if (cursor != null) {
+            long[] key = Cursor.decode(cursor, 2);
+            start = Math.max(start, c.search(key[0], key[1], false));
+        }
+        long to = filter.getTo() == null ? Long.MAX_VALUE : filter.getTo();
+
+        int venueType = -1;
+        if (filter.getVenueType() != null) {
+            venueType = Arrays.asList(c.venueTypeNames)
+                    .indexOf(filter.getVenueType().toString());
+            if (venueType < 0) {
+                return new Page<>(events, null);
+            }
+        }
+        boolean byClub = filter.getClubId() != null;
+        long clubId = byClub ? filter.getClubId() : 0;
+        boolean byCancelled = filter.getCancelled() != null;
+        boolean cancelled = byCancelled && filter.getCancelled();
+        boolean hasCapacity = filter.getHasCapacity();
+
+        // Scan until one row past the page, to know whether there is a
+        // following page
+        int last = -1;
+        for (int i = start; i < c.size && c.dateTimes[i] < to; i++) {
+            if ((byClub && c.clubIds[i] != clubId)
+                    || (byCancelled && c.cancelled[i] != cancelled)
+                    || (venueType >= 0 && c.venueTypes[i] != venueType)
+                    || (hasCapacity && c.attenders[i] >= c.capacities[i])) {
+                continue;
+            }
+            if (events.size() == limit) {
+                return new Page<>(events, Cursor.encode(c.dateTimes[last], c.ids[last]));
+            }
+            events.add(c.summary(i));
+            last = i;
+        }
+        return new Page<>(events, null);
+    }
+
+    /**
+     * Returns every event, ordered by date and time.
+     *
+     * @return the summaries of all events, or null if the columns are not
+     * loaded
+     */
+    List<EventSummary> findAll() {
+        Columns c = columns;
+        if (c == null) {
+            return null;
+        }
+        List<EventSummary> events = new ArrayList<>(c.size);
+        for (int i = 0; i < c.size; i++) {
+            events.add(c.summary(i));
+        }
+        return events;
+    }
+
+    /**
+     * Reads the rows matching a condition and merges them, or drops the
+     * columns and schedules a reload if they cannot be read.
+     */
+    private void refresh(DBConnection conn, String condition, long id) {
+        if (columns == null && !isRebuilding()) {
+            return;
+        }
+        try {
+            replace((c, i) -> false, read(conn.execute(SELECT + condition, id)));
+        } catch (SQLException e) {
+            LogManager.getLogger().error("Unable to refresh event columns, reloading them", e);
+            unload();
+        }
+    }
+
+    private synchronized boolean isRebuilding() {
+        return pending != null;
+    }
+
+    /**
+     * Drops the columns, so that events are browsed in the database, and
+     * reloads them in the background.
+     */
+    private synchronized void unload() {
+        drops++;
+        columns = null;
+        UpcomingEvents.getInstance().stop();
+        scheduleReload();
+    }
+
+    private synchronized void scheduleReload() {
+        if (!reloadScheduled && !closed) {
+            reloadScheduled = true;
+            reloader.schedule(this::reload, RELOAD_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void reload() {
+        synchronized (this) {
+            reloadScheduled = false;
+        }
+        reloads.increment();
+        if (!load()) {
+            scheduleReload();
+        }
+    }
+
+    /**
+     * Replaces the rows selected by `affected`, and the rows with the same ID
+     * as a new row, by the new rows, unless the new row is older.
+     */
+    private synchronized void replace(RowFilter affected, List<Row> rows) {
+        if (pending != null) {
+            pending.addAll(rows);
+        }
+        if (columns != null) {
+            columns = merge(columns, affected, rows);
+        }
+    }
+
+    /**
+     * Builds new columns from the rows of `current` that are not replaced
+     * and the new rows, in date and time order, and applies the same change
+     * to the upcoming events index. New rows of deleted events or clubs, and
+     * new rows older than the current row of their event, are ignored.
+     */
+    private Columns merge(Columns current, RowFilter affected, List<Row> rows) {
+        Map<Long, Row> added = new HashMap<>();
+        for (Row row : rows) {
+            if (!removedEvents.contains(row.id()) && !removedClubs.contains(row.clubId())) {
+                added.merge(row.id(), row,
+                        (a, b) -> a.revision() >= b.revision() ? a : b);
+            }
+        }
+
+        // Keep the current rows that are not replaced, including those newer
+        // than the row read to replace them
+        boolean[] keep = new boolean[current.size];
+        int kept = 0;
+        for (int i = 0; i < current.size; i++) {
+            Row replacement = added.get(current.ids[i]);
+            if (replacement != null && replacement.revision() <= current.revisions[i]) {
+                added.remove(current.ids[i]);
+                keep[i] = true;
+            } else {
+                keep[i] = replacement == null && !affected.test(current, i);
+            }
+            if (keep[i]) {
+                kept++;
+            } else {
+                UpcomingEvents.getInstance().remove(current.ids[i]);
+            }
+        }
+
+        // Encode the venue types of the new rows, extending the dictionary
+        List<String> names = new ArrayList<>(Arrays.asList(current.venueTypeNames));
+        Row[] sorted = added.values().toArray(new Row[0]);
+        Arrays.sort(sorted, ORDER);
+        byte[] codes = new byte[sorted.length];
+        for (int j = 0; j < sorted.length; j++) {
+            int code = names.indexOf(sorted[j].venueType());
+            if (code < 0) {
+                code = names.size();
+                names.add(sorted[j].venueType());
+            }
+            codes[j] = (byte) code;
+        }
+
+        Columns merged = new Columns(kept + sorted.length, names.toArray(new String[0]));
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (n < merged.size) {
+            if (i < current.size && !keep[i]) {
+                i++;
+            } else if (j == sorted.length || (i < current.size
+                    && compare(current, i, sorted[j]) < 0)) {
+                merged.copy(current, i++, n++);
+            } else {
+                merged.set(sorted[j], n, codes[j]);
+                UpcomingEvents.getInstance().put(sorted[j].dateTime(),
+                        sorted[j].clubId(), sorted[j].cancelled(), merged.summary(n));
+                n++;
+                j++;
+            }
+        }
+        return merged;
+    }
+
+    private static int compare(Columns columns, int i, Row row) {
+        if (columns.dateTimes[i] != row.dateTime()) {
+            return Long.compare(columns.dateTimes[i], row.dateTime());
+        }
+        return Long.compare(columns.ids[i], row.id());
+    }
+
+    private static List<Row> read(ResultSet rs) throws SQLException {
+        List<Row> rows = new ArrayList<>();
+        while (rs.next()) {
+            Integer capacity = rs.getObject("capacity", Integer.class);
+            rows.add(new Row(rs.getLong("eventID"),
+                    rs.getTimestamp("dateTime").getTime(), rs.getLong("clubID"),
+                    rs.getInt("attenders"), capacity == null ? -1 : capacity,
+                    rs.getBoolean("cancelled"),
+                    rs.getString("venueType"), rs.getString("title"),
+                    rs.getString("description"), rs.getString("clubName"),
+                    rs.getString("address"), rs.getLong("revision")));
+        }
+        rs.getStatement().close();
+        return rows;
+    }
+}
@@ -0,0 +1,100 @@
+package com.unimelb.swen90007.jspapp.datasource.datamapper;
+
+import com.unimelb.swen90007.jspapp.domain.VenueType;
+
+/**
+ * Criteria for selecting events with {@link EventMapper#findPage}. Criteria
+ * left null are not applied.
+ */
+public class EventFilter {
+
+    /**
+     * Earliest date and time (inclusive) in milliseconds since epoch.
+     */
+    private Long from;
+
+    /**
+     * Latest date and time (exclusive) in milliseconds since epoch.
+     */
+    private Long to;
+
+    /**
+     * ID of the club hosting the events.
+     */
+    private Long clubId;
+
+    /**
+     * Type of the venue the events are held at.
+     */
+    private VenueType venueType;
+
+    /**
+     * Whether the events are cancelled.
+     */
+    private Boolean cancelled;
+
+    /**
+     * Whether to only select events with fewer attendees than their venue
+     * capacity.
+     */
+    private boolean hasCapacity;
+
+    public Long getFrom() {
+        return from;
+    }
+
+    public void setFrom(Long from) {
+        this.from = from;
+    }
+
+    public Long getTo() {
+        return to;
+    }
+
+    public void setTo(Long to) {
+        this.to = to;
+    }
+
+    public Long getClubId() {
+        return clubId;
+    }
+
+    public void setClubId(Long clubId) {
+        this.clubId = clubId;
+    }
+
+    public VenueType getVenueType() {
+        return venueType;
+    }
+
+    public void setVenueType(VenueType venueType) {
+        this.venueType = venueType;
+    }
+
+    public Boolean getCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(Boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public boolean getHasCapacity() {
+        return hasCapacity;
+    }
+
+    public void setHasCapacity(boolean hasCapacity) {
+        this.hasCapacity = hasCapacity;
+    }
+
+    /**
+     * Returns a string uniquely describing this filter, for use as a cache
+     * key.
+     *
+     * @return the key
+     */
+    public String toKey() {
+        return from + ":" + to + ":" + clubId + ":" + venueType + ":"
+                + cancelled + ":" + hasCapacity;
+    }
+}
@@ -2,28 +2,73 @@ package com.unimelb.swen90007.jspapp.datasource.datamapper;
 
 import com.unimelb.swen90007.jspapp.datasource.ConnectionPool;
 import com.unimelb.swen90007.jspapp.datasource.DBConnection;
+import com.unimelb.swen90007.jspapp.datasource.EventCache;
+import com.unimelb.swen90007.jspapp.datasource.EventReadModel;
+import com.unimelb.swen90007.jspapp.datasource.Page;
+import com.unimelb.swen90007.jspapp.datasource.TypeaheadIndex;
 import com.unimelb.swen90007.jspapp.domain.DomainObject;
 import com.unimelb.swen90007.jspapp.domain.Event;
+import com.unimelb.swen90007.jspapp.domain.EventSummary;
 import com.unimelb.swen90007.jspapp.domain.StudentClub;
 import com.unimelb.swen90007.jspapp.domain.Venue;
+import com.unimelb.swen90007.jspapp.domain.VenueType;
 import com.unimelb.swen90007.jspapp.util.ConcurrencyException;
 import com.unimelb.swen90007.jspapp.util.ConnectionUnavailableException;
+import com.unimelb.swen90007.jspapp.util.Cursor;
 import org.apache.logging.log4j.LogManager;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Handles database operations for Event objects.
  */
 public class EventMapper extends DataMapper {
 
+    /**
+     * The fields of an event that can be requested from
+     * {@link #findFields(Long, Set)}.
+     */
+    public static final Set<String> FIELDS = Set.of("id", "title",
+            "description", "dateTime", "attenders", "host", "location");
+
+    /**
+     * Selects the columns of {@link EventSummary} from the event catalog,
+     * read by {@link #readSummary(ResultSet)}.
+     */
+    private static final String SUMMARY_SELECT = """
+            SELECT e.eventID, e.title, e.dateTime, e.clubName, e.address,
+                   e.attenders, e.description
+            FROM EventCatalog e
+            """;
+
+    private static final RowMapping<Event> rows =
+            new RowMapping<>(Event.class, "Events", "eventID")
+                    .column("title")
+                    .column("description")
+                    .column("attenders", "attendees")
+                    .column("venueID", "venue", Long.class, Venue::new)
+                    .column("dateTime", "dateTime", Timestamp.class, Timestamp::getTime)
+                    .column("clubID", "club", Long.class, StudentClub::new)
+                    .column("cancelled")
+                    .column("version");
+
+    @Override
+    protected RowMapping<?> getRowMapping() {
+        return rows;
+    }
+
     /**
      * Find an event by ID. Load the version number initially as this cannot be
-     * lazily loaded.
+     * lazily loaded. It is read from the primary database, since update()
+     * compares it there and a lagging replica would fail the comparison.
      *
      * @param id The id of the Event to retrieve.
      * @return An optional containing the Event if found, or Optional.empty()
@@ -56,7 +101,72 @@ public class EventMapper extends DataMapper {
     }
 
     /**
-     * Inserts a new event into the database.
+     * Find an event by ID, loading only the requested fields in a single
+     * query on the event catalog. The event is read from the primary database,
+     * since it is cached and a lagging replica would cache it as it was before
+     * a write.
+     *
+     * @param id     The id of the Event to retrieve.
+     * @param fields The fields to load, a subset of {@link #FIELDS}.
+     * @return An optional containing the Event if found, or Optional.empty()
+     * otherwise.
+     */
+    public Optional<Event> findFields(Long id, Set<String> fields) {
+        DBConnection conn = null;
+        Event event = null;
+
+        // Build the projection from the requested fields
+        StringBuilder sql = new StringBuilder("SELECT e.version");
+        if (fields.contains("title")) sql.append(", e.title");
+        if (fields.contains("description")) sql.append(", e.description");
+        if (fields.contains("dateTime")) sql.append(", e.dateTime");
+        if (fields.contains("attenders")) sql.append(", e.attenders");
+        if (fields.contains("host")) sql.append(", e.clubID, e.clubName");
+        if (fields.contains("location")) sql.append(", e.venueID, e.address");
+        sql.append(" FROM EventCatalog e WHERE e.eventID = ?");
+
+        try {
+            conn = ConnectionPool.getInstance().getConnection();
+            ResultSet rs = conn.execute(sql.toString(), id);
+            if (rs.next()) {
+                event = new Event(id, rs.getInt("version"));
+                if (fields.contains("title")) {
+                    event.setTitle(rs.getString("title"));
+                }
+                if (fields.contains("description")) {
+                    event.setDescription(rs.getString("description"));
+                }
+                if (fields.contains("dateTime")) {
+                    event.setDateTime(rs.getTimestamp("dateTime").getTime());
+                }
+                if (fields.contains("attenders")) {
+                    event.setAttendees(rs.getInt("attenders"));
+                }
+                if (fields.contains("host")) {
+                    StudentClub club = new StudentClub(rs.getLong("clubID"));
+                    club.setName(rs.getString("clubName"));
+                    event.setClub(club);
+                }
+                if (fields.contains("location")) {
+                    Venue venue = new Venue(rs.getLong("venueID"));
+                    venue.setAddress(rs.getString("address"));
+                    event.setVenue(venue);
+                }
+            }
+
+            rs.getStatement().close();
+        } catch (SQLException | ConnectionUnavailableException e) {
+            LogManager.getLogger().error("Unable to get event " + id, e);
+        } finally {
+            ConnectionPool.getInstance().releaseConnection(conn);
+        }
+
+        return Optional.ofNullable(event);
+    }
+
+    /**
+     * Inserts a new event into the database, along with its catalog row in
+     * the same transaction.
      *
      * @param obj the event to insert
      */
@@ -67,12 +177,14 @@ public class EventMapper extends DataMapper {
 
         try {
             conn = ConnectionPool.getInstance().getConnection();
-            conn.update(
+            conn.setAutoCommit(false);
+            ResultSet rs = conn.execute(
                     """
                             INSERT INTO Events (title, description, attenders,
                                                 venueID, dateTime, clubID,
                                                 cancelled)
                             VALUES (?, ?, ?, ?, ?, ?, ?)
+                            RETURNING eventID
                             """,
                     event.getTitle(),
                     event.getDescription(),
@@ -81,6 +193,19 @@ public class EventMapper extends DataMapper {
                     new java.sql.Timestamp(event.getDateTime()),
                     event.getClub().getId(),
                     event.getCancelled());
+            if (rs.next()) {
+                event.setId(rs.getLong("eventID"));
+            }
+            rs.getStatement().close();
+            EventReadModel.refreshEvent(conn, event.getId());
+            conn.commit();
+
+            // Nothing below throws, so a committed insert always reaches the
+            // columns, the cache and the typeahead index
+            EventColumns.getInstance().refreshEvent(conn, event.getId());
+            EventCache.getInstance().invalidateListings();
+            TypeaheadIndex.getInstance().putEvent(event.getId(),
+                    event.getTitle());
         } catch (SQLException | ConnectionUnavailableException e) {
             LogManager.getLogger().error("Failed to insert event", e);
         } finally {
@@ -146,8 +271,16 @@ public class EventMapper extends DataMapper {
                     event.getCancelled(),
                     currVersion + 1,
                     event.getId());
-            conn.commit();
             rs.getStatement().close();
+            EventReadModel.refreshEvent(conn, event.getId());
+            conn.commit();
+
+            // Nothing below throws, so a committed update always reaches the
+            // columns, the cache and the typeahead index
+            EventColumns.getInstance().refreshEvent(conn, event.getId());
+            EventCache.getInstance().invalidateEvent(event.getId());
+            TypeaheadIndex.getInstance().putEvent(event.getId(),
+                    event.getTitle());
         } catch (SQLException | ConnectionUnavailableException |
                  ConcurrencyException e) {
             LogManager.getLogger().error("Failed to update event", e);
@@ -173,6 +306,9 @@ public class EventMapper extends DataMapper {
                             WHERE eventID = ?
                             """,
                     obj.getId());
+            EventColumns.getInstance().removeEvent(obj.getId());
+            EventCache.getInstance().invalidateEvent(obj.getId());
+            TypeaheadIndex.getInstance().removeEvent(obj.getId());
         } catch (SQLException | ConnectionUnavailableException e) {
             LogManager.getLogger().error("Failed to delete event", e);
         } finally {
@@ -181,7 +317,8 @@ public class EventMapper extends DataMapper {
     }
 
     /**
-     * Finds the list of events organized by the StudentClub.
+     * Finds the list of events organized by the StudentClub, with their
+     * versions read from the primary database so they can be updated.
      *
      * @param clubID the unique identifier of the student club
      * @return the list of events if found, or an empty list if not
@@ -217,37 +354,50 @@ public class EventMapper extends DataMapper {
     }
 
     /**
-     * Finds events by a search query.
+     * Finds the events of every club a student is a member of, along with
+     * their clubs and venues, from the event catalog.
      *
-     * @param search the search query
-     * @return a list of events matching the search query
+     * @param studentID the unique identifier of the student
+     * @return the events ordered by club, or an empty list if there are none
      */
-    public List<Event> findBySearch(String search) {
+    public List<Event> findByMember(Long studentID) {
         DBConnection conn = null;
         List<Event> events = new ArrayList<>();
 
         try {
-            // Execute the search query
-            conn = ConnectionPool.getInstance().getConnection();
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
-                            SELECT eventID, version
-                            FROM Events
-                            WHERE to_tsvector('english', title) @@ to_tsquery(?);
+                            SELECT e.eventID, e.version, e.title, e.description,
+                                   e.attenders, e.dateTime, e.cancelled,
+                                   e.clubID, e.clubName, e.venueID, e.venueType,
+                                   e.address, e.capacity
+                            FROM Memberships m
+                            JOIN EventCatalog e ON e.clubID = m.clubID
+                            WHERE m.studentID = ?
+                            ORDER BY e.clubID, e.eventID
                             """,
-                    search);
-            if (!rs.isBeforeFirst()) {
-                System.out.println("No data returned.");
-            }
+                    studentID);
             while (rs.next()) {
-                Long eventID = rs.getLong("eventID");
-                Integer version = rs.getInt("version");
-                events.add(new Event(eventID, version));
+                StudentClub club = new StudentClub(rs.getLong("clubID"));
+                club.setName(rs.getString("clubName"));
+                Venue venue = new Venue(rs.getLong("venueID"),
+                        VenueType.fromPretty(rs.getString("venueType")),
+                        rs.getInt("capacity"));
+                venue.setAddress(rs.getString("address"));
+                Event event = new Event(rs.getLong("eventID"),
+                        rs.getString("title"), rs.getString("description"),
+                        rs.getInt("attenders"), venue,
+                        rs.getTimestamp("dateTime").getTime(), club,
+                        rs.getBoolean("cancelled"));
+                event.setVersion(rs.getInt("version"));
+                events.add(event);
             }
 
             rs.getStatement().close();
         } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get events by search", e);
+            LogManager.getLogger().error("Unable to get events of the clubs of student "
+                    + studentID, e);
         } finally {
             ConnectionPool.getInstance().releaseConnection(conn);
         }
@@ -256,285 +406,275 @@ public class EventMapper extends DataMapper {
     }
 
     /**
-     * Finds all events in the database.
+     * Finds events by a search query.
      *
-     * @return a list of all events
+     * @param search the search query
+     * @return a list of events matching the search query
      */
-    public List<Event> findAll() {
-        DBConnection conn = null;
-        List<Event> events = new ArrayList<>();
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    "SELECT eventID, version FROM Events");
-            while (rs.next()) {
-                Long eventID = rs.getLong("eventID");
-                Integer version = rs.getInt("version");
-                Event event = new Event(eventID, version);
-                events.add(event);
-            }
-
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get all events", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return events;
+    public List<EventSummary> findBySearch(String search) {
+        return findBySearch(search, Page.DEFAULT_LIMIT);
     }
 
     /**
-     * Finds the title of an event by its unique identifier.
+     * Finds the events best matching a search query, most relevant first.
+     * The query is parsed with websearch_to_tsquery, so ordinary phrases,
+     * quoted phrases, "or" and "-word" are accepted and never cause a syntax
+     * error. Titles are ranked above descriptions.
      *
-     * @param id the unique identifier of the event
-     * @return an Optional containing the title if found, or empty if not
+     * @param search the search query
+     * @param limit  the maximum number of events to return
+     * @return a list of events matching the search query
      */
-    public Optional<String> findTitle(Long id) {
+    public List<EventSummary> findBySearch(String search, int limit) {
         DBConnection conn = null;
-        String title = null;
+        List<EventSummary> events = new ArrayList<>();
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            // Execute the search query
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
-                            SELECT title FROM Events WHERE eventID = ?
+                            SELECT e.eventID, e.title, e.dateTime, c.name AS clubName,
+                                   v.address, e.attenders, e.description,
+                                   ts_rank(e.searchVector, q) AS rank
+                            FROM Events e
+                            CROSS JOIN websearch_to_tsquery('english', ?) q
+                            JOIN StudentClubs c ON c.clubID = e.clubID
+                            JOIN Venues v ON v.venueID = e.venueID
+                            WHERE e.searchVector @@ q
+                            ORDER BY rank DESC, e.eventID
+                            LIMIT ?
                             """,
-                    id);
-            if (rs.next()) {
-                title = rs.getString(1);
+                    search, limit);
+            while (rs.next()) {
+                events.add(readSummary(rs));
             }
 
             rs.getStatement().close();
         } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Failed to find event title " + id,
-                    e);
+            LogManager.getLogger().error("Unable to get events by search", e);
         } finally {
             ConnectionPool.getInstance().releaseConnection(conn);
         }
 
-        return Optional.ofNullable(title);
+        return events;
     }
 
     /**
-     * Finds the description of an event by its unique identifier.
+     * Finds the summaries of all events, from the in-memory columns once they
+     * are loaded, or else from the primary database, since the listing is
+     * cached.
      *
-     * @param id the unique identifier of the event
-     * @return an Optional containing the description if found, or empty if not
+     * @return a list of all events
      */
-    public Optional<String> findDescription(Long id) {
+    public List<EventSummary> findAll() {
+        List<EventSummary> loaded = EventColumns.getInstance().findAll();
+        if (loaded != null) {
+            return loaded;
+        }
+
         DBConnection conn = null;
-        String description = null;
+        List<EventSummary> events = new ArrayList<>();
 
         try {
             conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT description FROM Events WHERE eventID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                description = rs.getString(1);
+            ResultSet rs = conn.execute(SUMMARY_SELECT);
+            while (rs.next()) {
+                events.add(readSummary(rs));
             }
+
             rs.getStatement().close();
         } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Failed to find event description "
-                    + id, e);
+            LogManager.getLogger().error("Unable to get all events", e);
         } finally {
             ConnectionPool.getInstance().releaseConnection(conn);
         }
 
-        return Optional.ofNullable(description);
+        return events;
     }
 
     /**
-     * Finds the number of attenders of an event by its unique identifier.
+     * Loads the in-memory columns that {@link #findAll()} and
+     * {@link #findPage(EventFilter, String, int)} are served from, reading
+     * the primary database. Until they are loaded, events are browsed in the
+     * database.
      *
-     * @param id the unique identifier of the event
-     * @return an Optional containing the number of attenders if found, or empty if
-     * not
+     * @return whether the columns were loaded
      */
-    public Optional<Integer> findAttenders(Long id) {
-        DBConnection conn = null;
-        Integer attenders = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT attenders FROM Events WHERE eventID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                attenders = rs.getInt(1);
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Failed to find event attenders "
-                    + id, e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
+    public boolean loadColumns() {
+        return EventColumns.getInstance().load();
+    }
 
-        return Optional.ofNullable(attenders);
+    /**
+     * Drops the in-memory columns and stops the upcoming events index, e.g.
+     * when the application is undeployed.
+     */
+    public void unloadColumns() {
+        EventColumns.getInstance().close();
     }
 
     /**
-     * Finds the date and time of an event by its unique identifier.
+     * Finds the next events that are not cancelled, soonest first, from the
+     * upcoming events index once the columns are loaded.
      *
-     * @param id the unique identifier of the event
-     * @return an Optional containing the date and time if found, or empty if not
+     * @param clubId the ID of the club organizing the events, or null for any
+     *               club
+     * @param to     only events before this time are returned, in
+     *               milliseconds since epoch, or null for no bound
+     * @param limit  the maximum number of events to return
+     * @return the summaries of the events
      */
-    public Optional<Long> findDateTime(Long id) {
-        DBConnection conn = null;
-        Long dateTime = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT dateTime FROM Events WHERE eventID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                dateTime = rs.getTimestamp(1).getTime();
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Failed to find event dateTime "
-                    + id, e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
+    public List<EventSummary> findUpcoming(Long clubId, Long to, int limit) {
+        if (EventColumns.getInstance().isLoaded()) {
+            return UpcomingEvents.getInstance().find(clubId,
+                    to == null ? Long.MAX_VALUE : to, limit);
         }
 
-        return Optional.ofNullable(dateTime);
+        EventFilter filter = new EventFilter();
+        filter.setFrom(System.currentTimeMillis());
+        filter.setTo(to);
+        filter.setClubId(clubId);
+        filter.setCancelled(false);
+        return findPage(filter, null, limit).getItems();
     }
 
     /**
-     * Finds the venue of an event by its unique identifier.
+     * Returns whether an event has already happened, from the upcoming events
+     * index if it holds the event.
      *
-     * @param id the unique identifier of the event
-     * @return an Optional containing the Venue if found, or empty if not
+     * @param event the event
+     * @return whether the date and time of the event have passed
      */
-    public Optional<Venue> findVenue(Long id) {
-        DBConnection conn = null;
-        Venue venue = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT venueID FROM Events WHERE eventID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                long venueId = rs.getLong(1);
-                venue = new Venue(venueId);
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Failed to find event venue "
-                    + id, e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
+    public boolean hasOccurred(Event event) {
+        Boolean upcoming = EventColumns.getInstance().isLoaded()
+                ? UpcomingEvents.getInstance().isUpcoming(event.getId()) : null;
+        if (upcoming != null) {
+            return !upcoming;
         }
-
-        return Optional.ofNullable(venue);
+        return event.getDateTime() < System.currentTimeMillis();
     }
 
     /**
-     * Finds whether an event is cancelled by its unique identifier.
+     * Finds the titles of all events in a single query on the primary
+     * database, e.g. to build the typeahead index.
      *
-     * @param id the unique identifier of the event
-     * @return an Optional containing whether the event is cancelled if found, or
-     * empty if not
+     * @return the titles of all events, keyed by event ID
      */
-    public Optional<Boolean> findCancelled(Long id) {
+    public Map<Long, String> findAllTitles() {
         DBConnection conn = null;
-        Boolean cancelled = null;
+        Map<Long, String> titles = new HashMap<>();
 
         try {
             conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT cancelled FROM Events WHERE eventID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                cancelled = rs.getBoolean(1);
+            ResultSet rs = conn.execute("SELECT eventID, title FROM Events");
+            while (rs.next()) {
+                titles.put(rs.getLong("eventID"), rs.getString("title"));
             }
+
             rs.getStatement().close();
         } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Failed to find event cancelled "
-                    + id, e);
+            LogManager.getLogger().error("Unable to get event titles", e);
         } finally {
             ConnectionPool.getInstance().releaseConnection(conn);
         }
 
-        return Optional.ofNullable(cancelled);
+        return titles;
     }
 
     /**
-     * Finds the student club organizing the event by its unique identifier.
+     * Finds a page of the events matching a filter, ordered by date and time.
+     * Once loaded, the in-memory columns are scanned instead of the database.
+     * Otherwise the filter is applied in a query on the primary database,
+     * since pages are cached, so only matching rows are read.
      *
-     * @param id the unique identifier of the event
-     * @return an Optional containing the StudentClub if found, or empty if not
+     * @param filter the criteria the events must match
+     * @param cursor the cursor returned with the previous page, or null for
+     *               the first page
+     * @param limit  the maximum number of events to return
+     * @return the page of events
+     * @throws IllegalArgumentException if the cursor is malformed
      */
-    public Optional<StudentClub> findClub(Long id) {
+    public Page<EventSummary> findPage(EventFilter filter, String cursor, int limit) {
+        Page<EventSummary> page = EventColumns.getInstance().findPage(filter, cursor, limit);
+        if (page != null) {
+            return page;
+        }
+
         DBConnection conn = null;
-        StudentClub club = null;
+        List<EventSummary> events = new ArrayList<>();
+        String next = null;
+
+        // Build the query from the criteria that are set
+        StringBuilder sql = new StringBuilder(SUMMARY_SELECT);
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (filter.getFrom() != null) {
+            conditions.add("e.dateTime >= ?");
+            params.add(new Timestamp(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            conditions.add("e.dateTime < ?");
+            params.add(new Timestamp(filter.getTo()));
+        }
+        if (filter.getClubId() != null) {
+            conditions.add("e.clubID = ?");
+            params.add(filter.getClubId());
+        }
+        if (filter.getCancelled() != null) {
+            conditions.add("e.cancelled = ?");
+            params.add(filter.getCancelled());
+        }
+        if (filter.getVenueType() != null) {
+            conditions.add("e.venueType = ?");
+            params.add(filter.getVenueType().toString());
+        }
+        if (filter.getHasCapacity()) {
+            conditions.add("e.attenders < e.capacity");
+        }
+        if (cursor != null) {
+            long[] key = Cursor.decode(cursor, 2);
+            conditions.add("(e.dateTime, e.eventID) > (?, ?)");
+            params.add(new Timestamp(key[0]));
+            params.add(key[1]);
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY e.dateTime, e.eventID LIMIT ?");
+        params.add(limit + 1);
 
         try {
             conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT clubID FROM Events WHERE eventID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                long clubId = rs.getLong(1);
-                club = new StudentClub(clubId);
+            ResultSet rs = conn.execute(sql.toString(), params.toArray());
+
+            // Fetch one extra row to know whether there is a following page
+            while (rs.next()) {
+                if (events.size() == limit) {
+                    EventSummary last = events.get(limit - 1);
+                    next = Cursor.encode(last.dateTime(), last.id());
+                    break;
+                }
+                events.add(readSummary(rs));
             }
+
             rs.getStatement().close();
         } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Failed to find event club "
-                    + id, e);
+            LogManager.getLogger().error("Unable to get page of events", e);
         } finally {
             ConnectionPool.getInstance().releaseConnection(conn);
         }
 
-        return Optional.ofNullable(club);
+        return new Page<>(events, next);
     }
 
     /**
-     * Finds the version identifier of this event.
-     *
-     * @param id the unique identifier of the event
-     * @return an Optional containing the version if found, or empty if not
+     * Reads the summary of an event from the current row of a query starting
+     * with {@link #SUMMARY_SELECT}.
      */
-    public Optional<Integer> findVersion(Long id) {
-        DBConnection conn = null;
-        Integer version = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT version FROM Events WHERE eventID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                version = rs.getInt("version");
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Failed to find event version "
-                    + id, e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(version);
+    private static EventSummary readSummary(ResultSet rs) throws SQLException {
+        return new EventSummary(rs.getLong("eventID"), rs.getString("title"),
+                rs.getTimestamp("dateTime").getTime(), rs.getString("clubName"),
+                rs.getString("address"), rs.getInt("attenders"),
+                rs.getString("description"));
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.unimelb.swen90007.jspapp.datasource.datamapper;
 
 import com.unimelb.swen90007.jspapp.datasource.ConnectionPool;
 import com.unimelb.swen90007.jspapp.datasource.DBConnection;
+import com.unimelb.swen90007.jspapp.datasource.EntityCache;
 import com.unimelb.swen90007.jspapp.domain.DomainObject;
 import com.unimelb.swen90007.jspapp.domain.FacultyAdmin;
 import com.unimelb.swen90007.jspapp.util.ConnectionUnavailableException;
@@ -16,6 +17,22 @@ import java.util.Optional;
  */
 public class FacultyAdminMapper extends DataMapper {
 
+    /**
+     * Faculty administrators change rarely but are read on every request
+     * they make, so their rows are cached.
+     */
+    private static final RowMapping<FacultyAdmin> rows =
+            new RowMapping<>(FacultyAdmin.class, "FacultyAdministrators", "facultyID")
+                    .column("name")
+                    .column("email")
+                    .column("password")
+                    .cached(new EntityCache<>("facultyAdmin", 100, 600000));
+
+    @Override
+    protected RowMapping<?> getRowMapping() {
+        return rows;
+    }
+
     /**
      * Inserts a new faculty administrator into the database.
      *
@@ -62,6 +79,7 @@ public class FacultyAdminMapper extends DataMapper {
                             """,
                     admin.getName(), admin.getEmail(), admin.getPassword(),
                     admin.getId());
+            rows.invalidate(admin.getId());
         } catch (SQLException | ConnectionUnavailableException e) {
             LogManager.getLogger().error("Unable to update database entry", e);
         } finally {
@@ -86,6 +104,7 @@ public class FacultyAdminMapper extends DataMapper {
                             WHERE facultyID = ?
                             """,
                     obj.getId());
+            rows.invalidate(obj.getId());
         } catch (SQLException | ConnectionUnavailableException e) {
             LogManager.getLogger().error("Unable to delete database entry", e);
         } finally {
@@ -93,99 +112,6 @@ public class FacultyAdminMapper extends DataMapper {
         }
     }
 
-    /**
-     * Finds the name of a faculty administrator by their unique identifier.
-     *
-     * @param id the unique identifier of the faculty administrator
-     * @return an Optional containing the name if found, or empty if not
-     */
-    public Optional<String> findName(Long id) {
-        DBConnection conn = null;
-        String name = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT name FROM FacultyAdministrators
-                            WHERE facultyID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                name = rs.getString("name");
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(name);
-    }
-
-    /**
-     * Finds the email of a faculty administrator by their unique identifier.
-     *
-     * @param id the unique identifier of the faculty administrator
-     * @return an Optional containing the email if found, or empty if not
-     */
-    public Optional<String> findEmail(Long id) {
-        DBConnection conn = null;
-        String email = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT email FROM FacultyAdministrators
-                            WHERE facultyID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                email = rs.getString("email");
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(email);
-    }
-
-    /**
-     * Finds the password of a faculty administrator by their unique identifier.
-     *
-     * @param id the unique identifier of the faculty administrator
-     * @return an Optional containing the password if found, or empty if not
-     */
-    public Optional<String> findPassword(Long id) {
-        DBConnection conn = null;
-        String password = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT password FROM FacultyAdministrators
-                            WHERE facultyID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                password = rs.getString("password");
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(password);
-    }
-
     /**
      * Finds a faculty administrator by their email address.
      *
@@ -197,7 +123,7 @@ public class FacultyAdminMapper extends DataMapper {
         FacultyAdmin admin = null;
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
                             SELECT facultyID, name, password
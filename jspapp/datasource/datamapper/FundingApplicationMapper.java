@@ -2,9 +2,11 @@ package com.unimelb.swen90007.jspapp.datasource.datamapper;
 
 import com.unimelb.swen90007.jspapp.datasource.ConnectionPool;
 import com.unimelb.swen90007.jspapp.datasource.DBConnection;
+import com.unimelb.swen90007.jspapp.datasource.Page;
 import com.unimelb.swen90007.jspapp.domain.*;
 import com.unimelb.swen90007.jspapp.util.ConcurrencyException;
 import com.unimelb.swen90007.jspapp.util.ConnectionUnavailableException;
+import com.unimelb.swen90007.jspapp.util.Cursor;
 import org.apache.logging.log4j.LogManager;
 
 import java.sql.ResultSet;
@@ -19,9 +21,25 @@ import java.util.Optional;
  */
 public class FundingApplicationMapper extends DataMapper {
 
+    private static final RowMapping<FundingApplication> rows =
+            new RowMapping<>(FundingApplication.class, "FundingApplications", "applicationID")
+                    .column("description")
+                    .column("amount")
+                    .column("status", "status", String.class, FundingStatus::valueOf)
+                    .column("clubID", "studentClub", Long.class, StudentClub::new)
+                    .column("reviewerID", "reviewer", Long.class, FacultyAdmin::new)
+                    .column("semester")
+                    .column("version");
+
+    @Override
+    protected RowMapping<?> getRowMapping() {
+        return rows;
+    }
+
     /**
      * Find a funding application by ID. Load the version number initially
-     * as this cannot be lazily loaded.
+     * as this cannot be lazily loaded. It is read from the primary database,
+     * since update() compares it there.
      *
      * @param id The id of the FundingApplication to retrieve.
      * @return An optional containing the FundingApplication if found, or
@@ -174,7 +192,7 @@ public class FundingApplicationMapper extends DataMapper {
         List<FundingApplication> applications = new ArrayList<>();
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
                             SELECT applicationID FROM FundingReviews
@@ -206,7 +224,7 @@ public class FundingApplicationMapper extends DataMapper {
         List<FundingApplication> applications = new ArrayList<>();
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
                             SELECT applicationID
@@ -228,289 +246,134 @@ public class FundingApplicationMapper extends DataMapper {
         return applications;
     }
 
-    /**
-     * Finds the description of a funding application.
-     *
-     * @param id the unique identifier of the funding application
-     * @return the description of the funding application
-     */
-    public Optional<String> findDescription(Long id) {
-        DBConnection conn = null;
-        String description = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT description
-                            FROM FundingApplications
-                            WHERE applicationID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                description = rs.getString(1);
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(description);
-    }
-
-    /**
-     * Finds the amount of a funding application.
-     *
-     * @param id the unique identifier of the funding application
-     * @return the amount of the funding application
-     */
-    public Optional<Double> findAmount(Long id) {
+    public Optional<FundingApplication> findById(Long id) {
         DBConnection conn = null;
-        Double amount = null;
+        FundingApplication fundingApplication = null;
 
         try {
+            // Read from the primary database, since the result may be updated
             conn = ConnectionPool.getInstance().getConnection();
             ResultSet rs = conn.execute(
                     """
-                            SELECT amount FROM FundingApplications WHERE applicationID = ?
+                            SELECT a.applicationID, a.description, a.amount, a.status,
+                                   a.clubID, c.name, a.semester, a.version
+                            FROM FundingApplications a
+                            JOIN StudentClubs c ON c.clubID = a.clubID
+                            WHERE a.applicationID = ?
                             """,
                     id);
             if (rs.next()) {
-                amount = rs.getDouble(1);
+                fundingApplication = readApplication(rs);
             }
             rs.getStatement().close();
         } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
+            LogManager.getLogger().error("Unable to get funding application", e);
         } finally {
             ConnectionPool.getInstance().releaseConnection(conn);
         }
 
-        return Optional.ofNullable(amount);
+        return Optional.ofNullable(fundingApplication);
     }
 
     /**
-     * Finds the status of a funding application.
+     * Finds the summaries of all funding applications.
      *
-     * @param id the unique identifier of the funding application
-     * @return the status of the funding application
+     * @return the list of all funding applications
      */
-    public Optional<FundingStatus> findStatus(Long id) {
+    public List<FundingApplicationSummary> findAll() {
+        List<FundingApplicationSummary> applications = new ArrayList<>();
         DBConnection conn = null;
-        FundingStatus status = null;
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
-                            SELECT status FROM FundingApplications WHERE applicationID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                status = FundingStatus.valueOf(rs.getString(1));
+                            SELECT a.applicationID, a.description, a.amount, a.status,
+                                   a.clubID, c.name, a.semester, a.version
+                            FROM FundingApplications a
+                            JOIN StudentClubs c ON c.clubID = a.clubID
+                            """);
+            while (rs.next()) {
+                applications.add(readSummary(rs));
             }
             rs.getStatement().close();
         } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
+            LogManager.getLogger().error("Unable to get funding applications", e);
         } finally {
             ConnectionPool.getInstance().releaseConnection(conn);
         }
 
-        return Optional.ofNullable(status);
+        return applications;
     }
 
     /**
-     * Finds the associated student club for a funding application.
+     * Finds a page of funding applications ordered by ID.
      *
-     * @param id the unique identifier of the funding application
-     * @return the student club associated with the funding application
+     * @param cursor the cursor returned with the previous page, or null for
+     *               the first page
+     * @param limit  the maximum number of applications to return
+     * @return the page of funding applications
+     * @throws IllegalArgumentException if the cursor is malformed
      */
-    public Optional<StudentClub> findStudentClub(Long id) {
+    public Page<FundingApplicationSummary> findPage(String cursor, int limit) {
+        List<FundingApplicationSummary> applications = new ArrayList<>();
+        String next = null;
         DBConnection conn = null;
-        StudentClub studentClub = null;
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            long after = cursor == null ? 0 : Cursor.decode(cursor, 1)[0];
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
-                            SELECT clubID FROM FundingApplications WHERE ApplicationID = ?
+                            SELECT a.applicationID, a.description, a.amount, a.status,
+                                   a.clubID, c.name, a.semester, a.version
+                            FROM FundingApplications a
+                            JOIN StudentClubs c ON c.clubID = a.clubID
+                            WHERE a.applicationID > ?
+                            ORDER BY a.applicationID
+                            LIMIT ?
                             """,
-                    id);
-            if (rs.next()) {
-                Long clubId = rs.getLong(1);
-                studentClub = new StudentClub(clubId);
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(studentClub);
-    }
-
-    /**
-     * Finds the faculty administrator reviewer for a funding application.
-     *
-     * @param id the unique identifier of the funding application
-     * @return the faculty administrator reviewing the funding application
-     */
-    public Optional<FacultyAdmin> findReviewer(Long id) {
-        DBConnection conn = null;
-        FacultyAdmin reviewer = null;
+                    after, limit + 1);
 
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT reviewerID FROM FundingApplications WHERE applicationID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                Long reviewerId = rs.getLong("reviewerID");
-                reviewer = new FacultyAdmin(reviewerId);
+            // Fetch one extra row to know whether there is a following page
+            while (rs.next()) {
+                if (applications.size() == limit) {
+                    next = Cursor.encode(applications.get(limit - 1).id());
+                    break;
+                }
+                applications.add(readSummary(rs));
             }
             rs.getStatement().close();
         } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
+            LogManager.getLogger().error("Unable to get page of funding applications", e);
         } finally {
             ConnectionPool.getInstance().releaseConnection(conn);
         }
 
-        return Optional.ofNullable(reviewer);
+        return new Page<>(applications, next);
     }
 
     /**
-     * Finds the semester of a funding application.
-     *
-     * @param id the unique identifier of the funding application
-     * @return the semester of the funding application
+     * Reads a funding application and the name of its club from the current
+     * row.
      */
-    public Optional<Integer> findSemester(Long id) {
-        DBConnection conn = null;
-        Integer semester = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT semester FROM FundingApplications WHERE applicationID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                semester = rs.getInt(1);
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(semester);
+    private static FundingApplication readApplication(ResultSet rs) throws SQLException {
+        StudentClub club = new StudentClub(rs.getLong("clubID"));
+        club.setName(rs.getString("name"));
+        FundingApplication application = new FundingApplication(rs.getLong("applicationID"),
+                rs.getString("description"), rs.getDouble("amount"),
+                FundingStatus.valueOf(rs.getString("status")), rs.getInt("semester"), club);
+        application.setVersion(rs.getInt("version"));
+        return application;
     }
 
     /**
-     * Finds the version identifier of this funding application.
-     *
-     * @param id the unique identifier of the funding application
-     * @return an Optional containing the version if found, or empty if not
+     * Reads the summary of a funding application from the current row.
      */
-    public Optional<Integer> findVersion(Long id) {
-        DBConnection conn = null;
-        Integer version = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT version FROM Events WHERE eventID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                version = rs.getInt("version");
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Failed to find event version "
-                    + id, e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(version);
-    }
-
-    public Optional<FundingApplication> findById(Long id) {
-        DBConnection conn = null;
-        FundingApplication fundingApplication = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT applicationID, description, amount, status, clubID, semester, version
-                            FROM FundingApplications
-                            WHERE applicationID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                Long applicationId = rs.getLong("applicationID");
-                String description = rs.getString("description");
-                Double amount = rs.getDouble("amount");
-                FundingStatus status = FundingStatus.valueOf(rs.getString("status"));
-                Long clubId = rs.getLong("clubID");
-                Integer semester = rs.getInt("semester");
-                Integer version = rs.getInt("version");
-
-                fundingApplication = new FundingApplication(applicationId, description, amount, status, semester,
-                        new StudentClub(clubId));
-                fundingApplication.setVersion(version);
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get funding application", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(fundingApplication);
-    }
-
-    public List<FundingApplication> findAll() {
-        List<FundingApplication> applications = new ArrayList<>();
-        DBConnection conn = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT applicationID, description, amount, status, clubID, semester, version
-                            FROM FundingApplications
-                            """);
-            while (rs.next()) {
-                Long id = rs.getLong("applicationID");
-                String description = rs.getString("description");
-                Double amount = rs.getDouble("amount");
-                FundingStatus status = FundingStatus.valueOf(rs.getString("status"));
-                Long clubId = rs.getLong("clubID");
-                Integer semester = rs.getInt("semester");
-                Integer version = rs.getInt("version");
-
-                FundingApplication application = new FundingApplication(id, description, amount, status, semester,
-                        new StudentClub(clubId));
-                application.setVersion(version);
-                applications.add(application);
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get funding applications", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return applications;
+    private static FundingApplicationSummary readSummary(ResultSet rs) throws SQLException {
+        return new FundingApplicationSummary(rs.getLong("applicationID"),
+                rs.getString("description"), rs.getString("name"),
+                rs.getDouble("amount"), FundingStatus.valueOf(rs.getString("status")),
+                rs.getObject("semester", Integer.class));
     }
-}
\ No newline at end of file
+}
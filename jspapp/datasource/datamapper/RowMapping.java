@@ -0,0 +1,300 @@
+package com.unimelb.swen90007.jspapp.datasource.datamapper;
+
+import com.unimelb.swen90007.jspapp.datasource.ConnectionPool;
+import com.unimelb.swen90007.jspapp.datasource.DBConnection;
+import com.unimelb.swen90007.jspapp.datasource.EntityCache;
+import com.unimelb.swen90007.jspapp.domain.DomainObject;
+import com.unimelb.swen90007.jspapp.util.ConnectionUnavailableException;
+import org.apache.logging.log4j.LogManager;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Describes how the columns of a table are loaded into the fields of a domain
+ * class, so that a mapper declares its table once instead of writing a query
+ * per field. The lazy getters of the domain class call
+ * {@link DataMapper#load(DomainObject)}, which reads the whole row in one
+ * query and sets every field that is not set yet.
+ * <p>
+ * Each column is read and stored through method handles built once, when the
+ * mapping is declared, so loading a row costs the same whatever the domain
+ * class and involves no reflection. A column is either stored as is in the
+ * field of the same type, or converted first, e.g. a timestamp into
+ * milliseconds or a foreign key into a domain object.
+ *
+ * @param <T> the domain class
+ */
+public class RowMapping<T extends DomainObject> {
+
+    private static final MethodHandle GET_OBJECT;
+    private static final MethodHandle APPLY;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            GET_OBJECT = lookup.findVirtual(ResultSet.class, "getObject",
+                    MethodType.methodType(Object.class, int.class, Class.class));
+            APPLY = lookup.findVirtual(Function.class, "apply",
+                    MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Class<T> type;
+    private final String table;
+    private final String idColumn;
+    private final List<String> columns = new ArrayList<>();
+
+    /**
+     * Reads each column of the current row, as (ResultSet) -> Object.
+     */
+    private final List<MethodHandle> readers = new ArrayList<>();
+
+    /**
+     * Gets the field of each column, as (DomainObject) -> Object.
+     */
+    private final List<MethodHandle> getters = new ArrayList<>();
+
+    /**
+     * Converts the value of each column and sets its field, as
+     * (DomainObject, Object) -> void.
+     */
+    private final List<MethodHandle> setters = new ArrayList<>();
+
+    /**
+     * Cache of the column values by ID, or null if rows are always read from
+     * the database.
+     */
+    private EntityCache<Long, Object[]> cache;
+
+    /**
+     * Whether the table has an optimistic lock "version" column, i.e. rows
+     * are written back by an update that compares their version.
+     */
+    private boolean versioned;
+
+    private String select;
+
+    /**
+     * Construct a new RowMapping with no columns.
+     *
+     * @param type     the domain class
+     * @param table    the name of the table
+     * @param idColumn the name of the primary key column
+     */
+    public RowMapping(Class<T> type, String table, String idColumn) {
+        this.type = type;
+        this.table = table;
+        this.idColumn = idColumn;
+    }
+
+    /**
+     * Maps a column to the field of the same name and type.
+     *
+     * @param column the name of the column and field
+     * @return this mapping
+     */
+    public RowMapping<T> column(String column) {
+        return column(column, column);
+    }
+
+    /**
+     * Maps a column to a field of the same type.
+     *
+     * @param column the name of the column
+     * @param field  the name of the field
+     * @return this mapping
+     */
+    public RowMapping<T> column(String column, String field) {
+        Class<?> fieldType = findField(field).getType();
+        return add(column, field, fieldType, null);
+    }
+
+    /**
+     * Maps a column to a field, converting its values.
+     *
+     * @param column     the name of the column
+     * @param field      the name of the field
+     * @param columnType the type the column is read as
+     * @param converter  converts non-null column values to field values
+     * @param <C>        the type the column is read as
+     * @return this mapping
+     */
+    public <C> RowMapping<T> column(String column, String field,
+                                    Class<C> columnType,
+                                    Function<? super C, ?> converter) {
+        return add(column, field, columnType, converter);
+    }
+
+    /**
+     * Keeps the rows read in a cache shared by all requests, for tables that
+     * are read much more often than they change. The mapper must call
+     * {@link #invalidate(Long)} when it changes a row.
+     *
+     * @param cache the cache to use
+     * @return this mapping
+     */
+    public RowMapping<T> cached(EntityCache<Long, Object[]> cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    private RowMapping<T> add(String column, String field, Class<?> columnType,
+                              Function<?, ?> converter) {
+        Field target = findField(field);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(
+                    target.getDeclaringClass(), MethodHandles.lookup());
+            MethodHandle getter = lookup.unreflectGetter(target)
+                    .asType(MethodType.methodType(Object.class, DomainObject.class));
+            MethodHandle setter = lookup.unreflectSetter(target)
+                    .asType(MethodType.methodType(void.class, DomainObject.class, Object.class));
+            if (converter != null) {
+                setter = MethodHandles.filterArguments(setter, 1, APPLY.bindTo(converter));
+            }
+
+            readers.add(MethodHandles.insertArguments(GET_OBJECT, 1,
+                    columns.size() + 1, box(columnType)));
+            getters.add(getter);
+            setters.add(setter);
+            columns.add(column);
+            versioned |= column.equals("version");
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Unable to map " + column
+                    + " to " + type.getName() + "." + field, e);
+        }
+
+        select = "SELECT " + String.join(", ", columns) + " FROM " + table
+                + " WHERE " + idColumn + " = ?";
+        return this;
+    }
+
+    /**
+     * Sets the fields of a domain object that are not set yet from its row,
+     * identified by its ID.
+     *
+     * @param obj the domain object to load
+     * @return whether the row was found
+     */
+    public boolean load(DomainObject obj) {
+        Object[] values = find(obj.getId());
+        if (values == null) {
+            return false;
+        }
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null
+                        && (Object) getters.get(i).invokeExact(obj) == null) {
+                    setters.get(i).invokeExact(obj, values[i]);
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+        return true;
+    }
+
+    /**
+     * Invalidates the cached row with the given ID, if the mapping is cached.
+     *
+     * @param id the ID of the changed row
+     */
+    public void invalidate(Long id) {
+        if (cache != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    /**
+     * Returns the column values of the row with the given ID, from the cache
+     * if possible.
+     */
+    private Object[] find(Long id) {
+        if (id == null) {
+            return null;
+        }
+        if (cache != null) {
+            Object[] values = cache.get(id);
+            if (values != null) {
+                return values;
+            }
+        }
+
+        DBConnection conn = null;
+        Object[] values = null;
+        long generation = cache == null ? 0 : cache.getGeneration();
+
+        try {
+            // Rows that are cached are read from the primary database, so
+            // that a lagging replica cannot cache a row as it was before a
+            // write. So are versioned rows, since they are checked against
+            // and written back to the primary, e.g. event attendee counts
+            ConnectionPool pool = ConnectionPool.getInstance();
+            conn = cache == null && !versioned ? pool.getReadConnection() : pool.getConnection();
+            ResultSet rs = conn.execute(select, id);
+            if (rs.next()) {
+                values = read(rs);
+                if (cache != null) {
+                    cache.put(generation, id, values);
+                }
+            }
+            rs.getStatement().close();
+        } catch (SQLException | ConnectionUnavailableException e) {
+            LogManager.getLogger().error("Unable to load " + table + " " + id, e);
+        } finally {
+            ConnectionPool.getInstance().releaseConnection(conn);
+        }
+
+        return values;
+    }
+
+    /**
+     * Reads the mapped columns of the current row.
+     */
+    private Object[] read(ResultSet rs) throws SQLException {
+        Object[] values = new Object[readers.size()];
+        try {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (Object) readers.get(i).invokeExact(rs);
+            }
+        } catch (SQLException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new SQLException(e);
+        }
+        return values;
+    }
+
+    /**
+     * Finds a field of the domain class or one of its superclasses.
+     */
+    private Field findField(String name) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                // Look in the superclass
+            }
+        }
+        throw new IllegalArgumentException("No field " + name + " in "
+                + type.getName());
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
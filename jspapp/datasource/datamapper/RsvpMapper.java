@@ -2,13 +2,20 @@ package com.unimelb.swen90007.jspapp.datasource.datamapper;
 
 import com.unimelb.swen90007.jspapp.datasource.ConnectionPool;
 import com.unimelb.swen90007.jspapp.datasource.DBConnection;
+import com.unimelb.swen90007.jspapp.datasource.Page;
 import com.unimelb.swen90007.jspapp.domain.DomainObject;
 import com.unimelb.swen90007.jspapp.domain.Event;
 import com.unimelb.swen90007.jspapp.domain.Rsvp;
+import com.unimelb.swen90007.jspapp.domain.RsvpSummary;
 import com.unimelb.swen90007.jspapp.domain.Student;
+import com.unimelb.swen90007.jspapp.domain.StudentClub;
+import com.unimelb.swen90007.jspapp.domain.Ticket;
+import com.unimelb.swen90007.jspapp.domain.Venue;
 import com.unimelb.swen90007.jspapp.util.ConnectionUnavailableException;
+import com.unimelb.swen90007.jspapp.util.Cursor;
 import org.apache.logging.log4j.LogManager;
 
+import java.sql.Array;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
@@ -22,6 +29,18 @@ import java.util.Optional;
  */
 public class RsvpMapper extends DataMapper {
 
+    private static final RowMapping<Rsvp> rows =
+            new RowMapping<>(Rsvp.class, "RSVPs", "rsvpID")
+                    .column("studentID", "student", Long.class, Student::new)
+                    .column("eventID", "event", Long.class, Event::new)
+                    .column("issueDate")
+                    .column("cancelled");
+
+    @Override
+    protected RowMapping<?> getRowMapping() {
+        return rows;
+    }
+
     /**
      * Inserts a new RSVP object into the database.
      *
@@ -134,7 +153,7 @@ public class RsvpMapper extends DataMapper {
         List<Rsvp> rsvps = new ArrayList<>();
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
                             SELECT rsvpID
@@ -161,7 +180,8 @@ public class RsvpMapper extends DataMapper {
     }
 
     /**
-     * Finds and retrieves the RSVPs for a student.
+     * Finds and retrieves the RSVPs for a student, along with the title of
+     * their events, in a single query.
      *
      * @param studentID the ID of the student
      * @return a list of RSVP objects, or an empty list if not found
@@ -171,15 +191,21 @@ public class RsvpMapper extends DataMapper {
         List<Rsvp> rsvps = new ArrayList<>();
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
-                            SELECT rsvpID FROM RSVPs
-                            WHERE studentID = ?
+                            SELECT r.rsvpID, r.eventID, r.issueDate, r.cancelled, e.title
+                            FROM RSVPs r
+                            JOIN Events e ON e.eventID = r.eventID
+                            WHERE r.studentID = ?
                             """,
                     studentID);
             while (rs.next()) {
-                rsvps.add(new Rsvp(rs.getLong("rsvpID")));
+                Rsvp rsvp = new Rsvp(rs.getLong("rsvpID"), studentID,
+                        rs.getLong("eventID"), rs.getTimestamp("issueDate"),
+                        rs.getBoolean("cancelled"));
+                rsvp.getEvent().setTitle(rs.getString("title"));
+                rsvps.add(rsvp);
             }
 
             rs.getStatement().close();
@@ -192,138 +218,181 @@ public class RsvpMapper extends DataMapper {
         return rsvps;
     }
 
-    public Optional<Rsvp> findById(Long id) {
-        DBConnection conn = null;
-        Rsvp rsvp = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT studentID, eventID, issueDate, cancelled
-                            FROM RSVPs
-                            WHERE rsvpID = ?
-                            """,
-                    id);
-
-            if (rs.next()) {
-                Long studentID = rs.getLong("studentID");
-                Long eventID = rs.getLong("eventID");
-                Timestamp issueDate = rs.getTimestamp("issueDate");
-                Boolean cancelled = rs.getBoolean("cancelled");
-                rsvp = new Rsvp(id, studentID, eventID, issueDate, cancelled);
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(rsvp);
+    /**
+     * Finds the summaries of the RSVPs of a student that are not cancelled,
+     * ordered by ID.
+     *
+     * @param studentID the ID of the student
+     * @return the summaries, or an empty list if there are none
+     */
+    public List<RsvpSummary> findSummariesByStudent(Long studentID) {
+        return findSummariesByStudent(studentID, null, Integer.MAX_VALUE - 1).getItems();
     }
 
     /**
-     * Finds and retrieves the Student associated with the RSVP.
+     * Finds a page of the summaries of the RSVPs of a student that are not
+     * cancelled, ordered by ID.
      *
-     * @param id the unique identifier of the RSVP
-     * @return an Optional containing the Student, or Optional.empty() if not
-     *         found
+     * @param studentID the ID of the student
+     * @param cursor    the cursor returned with the previous page, or null for
+     *                  the first page
+     * @param limit     the maximum number of RSVPs to return
+     * @return the page of summaries
+     * @throws IllegalArgumentException if the cursor is malformed
      */
-    public Optional<Student> findStudent(Long id) {
+    public Page<RsvpSummary> findSummariesByStudent(Long studentID, String cursor, int limit) {
         DBConnection conn = null;
-        Student student = null;
+        List<RsvpSummary> rsvps = new ArrayList<>();
+        String next = null;
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            long after = cursor == null ? 0 : Cursor.decode(cursor, 1)[0];
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
-                            SELECT studentID FROM RSVPs
-                            WHERE rsvpID = ?
+                            SELECT r.rsvpID, e.title, r.issueDate
+                            FROM RSVPs r
+                            JOIN Events e ON e.eventID = r.eventID
+                            WHERE r.studentID = ? AND r.rsvpID > ? AND NOT r.cancelled
+                            ORDER BY r.rsvpID
+                            LIMIT ?
                             """,
-                    id);
+                    studentID, after, limit + 1);
 
-            if (rs.next()) {
-                Long studentID = rs.getLong("studentID");
-                student = new Student(studentID);
+            // Fetch one extra row to know whether there is a following page
+            while (rs.next()) {
+                if (rsvps.size() == limit) {
+                    next = Cursor.encode(rsvps.get(limit - 1).rsvpId());
+                    break;
+                }
+                rsvps.add(new RsvpSummary(rs.getLong("rsvpID"),
+                        rs.getString("title"), rs.getTimestamp("issueDate")));
             }
+
             rs.getStatement().close();
         } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
+            LogManager.getLogger().error("Unable to get RSVPs of student " + studentID, e);
         } finally {
             ConnectionPool.getInstance().releaseConnection(conn);
         }
 
-        return Optional.ofNullable(student);
+        return new Page<>(rsvps, next);
     }
 
-    /**
-     * Finds and retrieves the Event associated with the RSVP.
-     *
-     * @param id the unique identifier of the RSVP
-     * @return an Optional containing the Event, or Optional.empty() if not
-     *         found
-     */
-    public Optional<Event> findEvent(Long id) {
+    public Optional<Rsvp> findById(Long id) {
         DBConnection conn = null;
-        Event event = null;
+        Rsvp rsvp = null;
 
         try {
+            // Read from the primary database, since the result may be updated
             conn = ConnectionPool.getInstance().getConnection();
             ResultSet rs = conn.execute(
                     """
-                            SELECT eventID FROM RSVPs
+                            SELECT studentID, eventID, issueDate, cancelled
+                            FROM RSVPs
                             WHERE rsvpID = ?
                             """,
                     id);
 
             if (rs.next()) {
+                Long studentID = rs.getLong("studentID");
                 Long eventID = rs.getLong("eventID");
-                event = new Event(eventID);
+                Timestamp issueDate = rs.getTimestamp("issueDate");
+                Boolean cancelled = rs.getBoolean("cancelled");
+                rsvp = new Rsvp(id, studentID, eventID, issueDate, cancelled);
             }
-
-            rs.getStatement().close(); // Close the statement to release resources
+            rs.getStatement().close();
         } catch (SQLException | ConnectionUnavailableException e) {
             LogManager.getLogger().error("Unable to get database field", e);
         } finally {
             ConnectionPool.getInstance().releaseConnection(conn);
         }
 
-        return Optional.ofNullable(event);
+        return Optional.ofNullable(rsvp);
     }
 
     /**
-     * Finds and retrieves the cancellation status of the RSVP.
+     * Finds an RSVP together with its student, its event, the club and venue
+     * of the event and its tickets, in a single query. Reading the RSVP does
+     * not query the database again.
      *
-     * @param id the unique identifier of the RSVP
-     * @return an Optional containing the cancellation status, or
-     *         Optional.empty() if not found
+     * @param id the ID of the RSVP
+     * @return an Optional containing the RSVP, or Optional.empty() if not found
      */
-    public Optional<Boolean> findCancelled(Long id) {
+    public Optional<Rsvp> findDetails(Long id) {
         DBConnection conn = null;
-        Boolean cancelled = null;
+        Rsvp rsvp = null;
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
-                            SELECT cancelled FROM RSVPs
-                            WHERE rsvpID = ?
+                            SELECT r.studentID, r.eventID, r.issueDate, r.cancelled,
+                                   s.email, e.title, e.description, e.attenders,
+                                   e.dateTime, e.cancelled AS eventCancelled,
+                                   e.version, e.clubID, c.name, e.venueID, v.address,
+                                   t.ticketIDs, t.studentIDs, t.emails
+                            FROM RSVPs r
+                            JOIN Students s ON s.studentID = r.studentID
+                            JOIN Events e ON e.eventID = r.eventID
+                            JOIN StudentClubs c ON c.clubID = e.clubID
+                            JOIN Venues v ON v.venueID = e.venueID
+                            CROSS JOIN LATERAL (
+                                SELECT array_agg(tk.ticketID ORDER BY tk.ticketID) AS ticketIDs,
+                                       array_agg(tk.studentID ORDER BY tk.ticketID) AS studentIDs,
+                                       array_agg(ts.email ORDER BY tk.ticketID) AS emails
+                                FROM Tickets tk
+                                JOIN Students ts ON ts.studentID = tk.studentID
+                                WHERE tk.rsvpID = r.rsvpID
+                            ) t
+                            WHERE r.rsvpID = ?
                             """,
                     id);
 
             if (rs.next()) {
-                cancelled = rs.getBoolean("cancelled");
+                Student student = new Student(rs.getLong("studentID"));
+                student.setEmail(rs.getString("email"));
+                StudentClub club = new StudentClub(rs.getLong("clubID"));
+                club.setName(rs.getString("name"));
+                Venue venue = new Venue(rs.getLong("venueID"));
+                venue.setAddress(rs.getString("address"));
+                Event event = new Event(rs.getLong("eventID"),
+                        rs.getString("title"), rs.getString("description"),
+                        rs.getInt("attenders"), venue,
+                        rs.getTimestamp("dateTime").getTime(), club,
+                        rs.getBoolean("eventCancelled"));
+                event.setVersion(rs.getInt("version"));
+
+                rsvp = new Rsvp(id, student.getId(), event.getId(),
+                        rs.getTimestamp("issueDate"), rs.getBoolean("cancelled"));
+                rsvp.setStudent(student);
+                rsvp.setEvent(event);
+
+                // The arrays are null when the RSVP has no tickets
+                List<Ticket> tickets = new ArrayList<>();
+                Array ticketIDs = rs.getArray("ticketIDs");
+                if (ticketIDs != null) {
+                    Long[] ids = (Long[]) ticketIDs.getArray();
+                    Long[] studentIDs = (Long[]) rs.getArray("studentIDs").getArray();
+                    String[] emails = (String[]) rs.getArray("emails").getArray();
+                    for (int i = 0; i < ids.length; i++) {
+                        Student holder = new Student(studentIDs[i]);
+                        holder.setEmail(emails[i]);
+                        Ticket ticket = new Ticket(ids[i], rsvp, holder);
+                        ticket.setEvent(event);
+                        tickets.add(ticket);
+                    }
+                }
+                rsvp.setTickets(tickets);
             }
-
             rs.getStatement().close();
         } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
+            LogManager.getLogger().error("Unable to get RSVP details " + id, e);
         } finally {
             ConnectionPool.getInstance().releaseConnection(conn);
         }
 
-        return Optional.ofNullable(cancelled);
+        return Optional.ofNullable(rsvp);
     }
 
     /**
@@ -338,7 +407,7 @@ public class RsvpMapper extends DataMapper {
         Rsvp rsvp = null;
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
                             SELECT rsvpID FROM RSVPs
@@ -2,6 +2,10 @@ package com.unimelb.swen90007.jspapp.datasource.datamapper;
 
 import com.unimelb.swen90007.jspapp.datasource.ConnectionPool;
 import com.unimelb.swen90007.jspapp.datasource.DBConnection;
+import com.unimelb.swen90007.jspapp.datasource.EntityCache;
+import com.unimelb.swen90007.jspapp.datasource.EventCache;
+import com.unimelb.swen90007.jspapp.datasource.EventReadModel;
+import com.unimelb.swen90007.jspapp.datasource.TypeaheadIndex;
 import com.unimelb.swen90007.jspapp.domain.DomainObject;
 import com.unimelb.swen90007.jspapp.domain.FundingApplication;
 import com.unimelb.swen90007.jspapp.domain.Student;
@@ -12,7 +16,9 @@ import org.apache.logging.log4j.LogManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -21,6 +27,21 @@ import java.util.Optional;
  */
 public class StudentClubMapper extends DataMapper {
 
+    /**
+     * Club names and descriptions change rarely but are read for every event
+     * shown, so their rows are cached.
+     */
+    private static final RowMapping<StudentClub> rows =
+            new RowMapping<>(StudentClub.class, "StudentClubs", "clubID")
+                    .column("name")
+                    .column("description")
+                    .cached(new EntityCache<>("club", 1000, 600000));
+
+    @Override
+    protected RowMapping<?> getRowMapping() {
+        return rows;
+    }
+
     /**
      * Finds and retrieves the clubs for a student.
      *
@@ -32,7 +53,7 @@ public class StudentClubMapper extends DataMapper {
         List<StudentClub> clubs = new ArrayList<>();
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
                             SELECT clubID FROM Memberships
@@ -55,69 +76,30 @@ public class StudentClubMapper extends DataMapper {
     }
 
     /**
-     * Finds the name of the StudentClub.
-     *
-     * @param id the unique identifier of the student club
-     * @return an Optional containing the name if found, or Optional.empty()
-     * if not
-     */
-    public Optional<String> findName(Long id) {
-        DBConnection conn = null;
-        String name = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT name FROM StudentClubs WHERE clubID = ?
-                            """,
-                    id);
-
-            if (rs.next()) {
-                name = rs.getString("name");
-            }
-
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(name);
-    }
-
-    /**
-     * Finds the description of the StudentClub.
+     * Finds the names of all clubs in a single query on the primary
+     * database, e.g. to build the typeahead index.
      *
-     * @param id the unique identifier of the student club
-     * @return an Optional containing the description if found, or
-     * Optional.empty() if not
+     * @return the names of all clubs, keyed by club ID
      */
-    public Optional<String> findDescription(Long id) {
+    public Map<Long, String> findAllNames() {
         DBConnection conn = null;
-        String description = null;
+        Map<Long, String> names = new HashMap<>();
 
         try {
             conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT description FROM StudentClubs WHERE clubID = ?
-                            """,
-                    id);
-
-            if (rs.next()) {
-                description = rs.getString("description");
+            ResultSet rs = conn.execute("SELECT clubID, name FROM StudentClubs");
+            while (rs.next()) {
+                names.put(rs.getLong("clubID"), rs.getString("name"));
             }
 
             rs.getStatement().close();
         } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
+            LogManager.getLogger().error("Unable to get club names", e);
         } finally {
             ConnectionPool.getInstance().releaseConnection(conn);
         }
 
-        return Optional.ofNullable(description);
+        return names;
     }
 
     /**
@@ -132,7 +114,7 @@ public class StudentClubMapper extends DataMapper {
         List<FundingApplication> fundingApplications = new ArrayList<>();
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
                             SELECT fundingApplicationID
@@ -169,12 +151,17 @@ public class StudentClubMapper extends DataMapper {
 
         try {
             conn = ConnectionPool.getInstance().getConnection();
-            conn.update(
+            ResultSet rs = conn.execute(
                     """
                             INSERT INTO StudentClubs (name, description)
                             VALUES (?, ?)
+                            RETURNING clubID
                             """,
                     studentClub.getName(), studentClub.getDescription());
+            if (rs.next()) {
+                studentClub.setId(rs.getLong("clubID"));
+            }
+            rs.getStatement().close();
 
             for (Student member : studentClub.getAdmins()) {
                 conn.update(
@@ -185,6 +172,8 @@ public class StudentClubMapper extends DataMapper {
                                 """,
                         member.getId(), studentClub.getId());
             }
+            TypeaheadIndex.getInstance().putClub(studentClub.getId(),
+                    studentClub.getName());
         } catch (SQLException | ConnectionUnavailableException e) {
             LogManager.getLogger().error("Unable to insert database entry", e);
         } finally {
@@ -212,6 +201,8 @@ public class StudentClubMapper extends DataMapper {
                             """,
                     studentClub.getName(), studentClub.getDescription(),
                     studentClub.getId());
+            EventReadModel.refreshClub(conn, studentClub.getId());
+            EventColumns.getInstance().refreshClub(conn, studentClub.getId());
 
             // Remove all existing memberships for this club
             conn.update(
@@ -230,6 +221,12 @@ public class StudentClubMapper extends DataMapper {
                                 """,
                         admin.getId(), studentClub.getId());
             }
+
+            // Club names are shown on every event the club hosts
+            rows.invalidate(studentClub.getId());
+            EventCache.getInstance().invalidateAll();
+            TypeaheadIndex.getInstance().putClub(studentClub.getId(),
+                    studentClub.getName());
         } catch (SQLException | ConnectionUnavailableException e) {
             LogManager.getLogger().error("Unable to update database entry", e);
         } finally {
@@ -254,6 +251,10 @@ public class StudentClubMapper extends DataMapper {
                             WHERE clubID = ?
                             """,
                     obj.getId());
+            rows.invalidate(obj.getId());
+            EventColumns.getInstance().removeClub(obj.getId());
+            EventCache.getInstance().invalidateAll();
+            TypeaheadIndex.getInstance().removeClub(obj.getId());
         } catch (SQLException | ConnectionUnavailableException e) {
             LogManager.getLogger().error("Unable to delete database entry", e);
         } finally {
@@ -261,31 +262,15 @@ public class StudentClubMapper extends DataMapper {
         }
     }
 
+    /**
+     * Finds the name and description of a StudentClub.
+     *
+     * @param clubId the unique identifier of the student club
+     * @return an Optional containing the club if found, or Optional.empty()
+     * if not
+     */
     public Optional<StudentClub> find(Long clubId) {
-        DBConnection conn = null;
-        StudentClub studentClub = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT * FROM StudentClubs WHERE clubID = ?
-                            """,
-                    clubId);
-            if (rs.next()) {
-                studentClub = new StudentClub(clubId,
-                        rs.getString("name"),
-                        rs.getString("description"));
-            }
-
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(studentClub);
+        StudentClub studentClub = new StudentClub(clubId);
+        return load(studentClub) ? Optional.of(studentClub) : Optional.empty();
     }
 }
@@ -2,8 +2,10 @@ package com.unimelb.swen90007.jspapp.datasource.datamapper;
 
 import com.unimelb.swen90007.jspapp.datasource.ConnectionPool;
 import com.unimelb.swen90007.jspapp.datasource.DBConnection;
+import com.unimelb.swen90007.jspapp.datasource.EntityCache;
 import com.unimelb.swen90007.jspapp.domain.DomainObject;
 import com.unimelb.swen90007.jspapp.domain.Student;
+import com.unimelb.swen90007.jspapp.util.Config;
 import com.unimelb.swen90007.jspapp.util.ConnectionUnavailableException;
 import org.apache.logging.log4j.LogManager;
 
@@ -11,6 +13,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 /**
@@ -18,6 +21,44 @@ import java.util.Optional;
  */
 public class StudentMapper extends DataMapper {
 
+    private static final RowMapping<Student> rows =
+            new RowMapping<>(Student.class, "Students", "studentID")
+                    .column("name")
+                    .column("email")
+                    .column("password");
+
+    @Override
+    protected RowMapping<?> getRowMapping() {
+        return rows;
+    }
+
+    /**
+     * Students by lower-cased email. Emails of unregistered guests are cached
+     * as Optional.empty() for "cache.studentEmail.negativeTtlMs".
+     */
+    private static final EntityCache<String, Optional<Row>> emailCache =
+            new EntityCache<>("studentEmail", 10000, 300000);
+
+    private static final int NEGATIVE_TTL_MS =
+            Config.getInt("cache.studentEmail.negativeTtlMs", 30000);
+
+    /**
+     * The columns of a row of the Students table.
+     */
+    private static class Row {
+        private final Long id;
+        private final String name;
+        private final String email;
+        private final String password;
+
+        private Row(Long id, String name, String email, String password) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+            this.password = password;
+        }
+    }
+
     /**
      * Inserts a Student record into the database.
      *
@@ -36,6 +77,7 @@ public class StudentMapper extends DataMapper {
                             VALUES (?, ?, ?)
                             """,
                     student.getName(), student.getEmail(), student.getPassword());
+            emailCache.invalidate(normalizeEmail(student.getEmail()));
         } catch (SQLException | ConnectionUnavailableException e) {
             LogManager.getLogger().error("Unable to get database field", e);
         } finally {
@@ -65,6 +107,9 @@ public class StudentMapper extends DataMapper {
                     student.getEmail(),
                     student.getPassword(),
                     student.getId());
+
+            // The previous email of the student is not known here
+            emailCache.invalidateAll();
         } catch (SQLException | ConnectionUnavailableException e) {
             LogManager.getLogger().error("Unable to get database field", e);
         } finally {
@@ -89,6 +134,7 @@ public class StudentMapper extends DataMapper {
                             WHERE studentID = ?
                             """,
                     obj.getId());
+            emailCache.invalidateAll();
         } catch (SQLException | ConnectionUnavailableException e) {
             LogManager.getLogger().error("Unable to get database field", e);
         } finally {
@@ -97,38 +143,80 @@ public class StudentMapper extends DataMapper {
     }
 
     /**
-     * Finds a Student by email.
+     * Finds a Student by email, ignoring case, from the cache if possible.
      *
      * @param email the email of the Student to find.
      * @return an Optional containing the found Student, or Optional.empty()
      * if not found.
      */
     public Optional<Student> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        String key = normalizeEmail(email);
+        Optional<Row> row = emailCache.get(key);
+        if (row == null) {
+            row = findRowByEmail(email, key);
+        }
+        return row.map(r -> new Student(r.id, r.name, r.email, r.password));
+    }
+
+    /**
+     * Finds the row of a Student by lower-cased email and caches the result,
+     * whether a Student was found or not. The row is read from the primary
+     * database, so that a student who has just registered is never cached
+     * as absent because a replica has not caught up yet.
+     * <p>
+     * Emails are unique ignoring case once the students_email_lower_key
+     * index exists. Until then, students sharing an email ignoring case are
+     * reported, and only the one whose email matches exactly is found.
+     */
+    private Optional<Row> findRowByEmail(String email, String key) {
         DBConnection conn = null;
-        Student student = null;
+        long generation = emailCache.getGeneration();
 
         try {
             conn = ConnectionPool.getInstance().getConnection();
             ResultSet rs = conn.execute(
                     """
-                            SELECT * FROM Students
-                            WHERE email = ?
+                            SELECT studentID, name, email, password FROM Students
+                            WHERE lower(email) = ?
                             """,
-                    email);
+                    key);
 
-            if (rs.next()) {
-                student = new Student(rs.getLong(1), rs.getString(2),
-                        rs.getString(3), rs.getString(4));
+            List<Row> rows = new ArrayList<>();
+            while (rs.next()) {
+                rows.add(new Row(rs.getLong("studentID"),
+                        rs.getString("name"), rs.getString("email"),
+                        rs.getString("password")));
             }
-
             rs.getStatement().close();
+
+            if (rows.size() > 1) {
+                LogManager.getLogger().error("Students "
+                        + rows.stream().map(r -> r.id).toList()
+                        + " share the email " + key + " ignoring case");
+                return rows.stream().filter(r -> r.email.equals(email)).findFirst();
+            }
+
+            Optional<Row> row = rows.stream().findFirst();
+            if (row.isPresent()) {
+                emailCache.put(generation, key, row);
+            } else {
+                emailCache.put(generation, key, row, NEGATIVE_TTL_MS);
+            }
+            return row;
         } catch (SQLException | ConnectionUnavailableException e) {
             LogManager.getLogger().error("Unable to find student by email", e);
         } finally {
             ConnectionPool.getInstance().releaseConnection(conn);
         }
 
-        return Optional.ofNullable(student);
+        return Optional.empty();
+    }
+
+    private static String normalizeEmail(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -142,7 +230,7 @@ public class StudentMapper extends DataMapper {
         List<Student> members = new ArrayList<>();
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
                             SELECT studentID FROM Memberships WHERE clubID = ?
@@ -165,131 +253,14 @@ public class StudentMapper extends DataMapper {
     }
 
     /**
-     * Finds and retrieves the name of a student.
+     * Finds a Student by ID.
      *
-     * @param id the ID of the student.
-     * @return an Optional containing the name of the student, or
-     * Optional.empty() if not found.
-     */
-    public Optional<String> findName(Long id) {
-        DBConnection conn = null;
-        String name = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT name FROM Students
-                            WHERE studentID = ?
-                            """,
-                    id);
-
-            if (rs.next()) {
-                name = rs.getString("name");
-            }
-
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(name);
-    }
-
-    /**
-     * Finds and retrieves the email of a student.
-     *
-     * @param id the ID of the student.
-     * @return an Optional containing the email of the student, or
-     * Optional.empty() if not found.
-     */
-    public Optional<String> findEmail(Long id) {
-        DBConnection conn = null;
-        String email = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT email FROM Students
-                            WHERE studentID = ?
-                            """,
-                    id);
-
-            if (rs.next()) {
-                email = rs.getString("email");
-            }
-
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(email);
-    }
-
-    /**
-     * Finds and retrieves the password of a student.
-     *
-     * @param id the ID of the student.
-     * @return an Optional containing the password of the student, or
-     * Optional.empty() if not found.
+     * @param id the ID of the Student to find.
+     * @return an Optional containing the found Student, or Optional.empty()
+     * if not found.
      */
-    public Optional<String> findPassword(Long id) {
-        DBConnection conn = null;
-        String password = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT password FROM Students
-                            WHERE studentID = ?
-                            """,
-                    id);
-
-            if (rs.next()) {
-                password = rs.getString("password");
-            }
-
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(password);
-    }
-
     public Optional<Student> findById(Long id) {
-        DBConnection conn = null;
-        Student student = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT * FROM Students
-                            WHERE studentID = ?
-                            """,
-                    id);
-            if (rs.next()) {
-                student = new Student(rs.getLong(1), rs.getString(2),
-                        rs.getString(3), rs.getString(4));
-            }
-
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to find student by ID", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(student);
+        Student student = new Student(id);
+        return load(student) ? Optional.of(student) : Optional.empty();
     }
 }
@@ -18,6 +18,17 @@ import java.util.Optional;
  */
 public class TicketMapper extends DataMapper {
 
+    private static final RowMapping<Ticket> rows =
+            new RowMapping<>(Ticket.class, "Tickets", "ticketID")
+                    .column("rsvpID", "rsvp", Long.class, Rsvp::new)
+                    .column("studentID", "student", Long.class, Student::new)
+                    .column("eventID", "event", Long.class, Event::new);
+
+    @Override
+    protected RowMapping<?> getRowMapping() {
+        return rows;
+    }
+
     /**
      * Finds and retrieves the tickets associated with the RSVP.
      *
@@ -29,7 +40,7 @@ public class TicketMapper extends DataMapper {
         List<Ticket> tickets = new ArrayList<>();
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
                             SELECT ticketID FROM Tickets
@@ -52,108 +63,6 @@ public class TicketMapper extends DataMapper {
         return tickets;
     }
 
-    /**
-     * Finds the RSVP associated with the given Ticket ID.
-     *
-     * @param ticketId the ID of the Ticket.
-     * @return an Optional containing the RSVP, or Optional.empty() if not
-     * found.
-     */
-    public Optional<Rsvp> findRsvp(Long ticketId) {
-        DBConnection conn = null;
-        Rsvp rsvp = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT rsvpID FROM Tickets
-                            WHERE id = ?
-                            """,
-                    ticketId);
-
-            if (rs.next()) {
-                rsvp = new Rsvp(rs.getLong("rsvpID"));
-            }
-
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(rsvp);
-    }
-
-    /**
-     * Finds the Student associated with the given Ticket ID.
-     *
-     * @param ticketId the ID of the Ticket.
-     * @return an Optional containing the Student, or Optional.empty() if not
-     * found.
-     */
-    public Optional<Student> findStudent(Long ticketId) {
-        DBConnection conn = null;
-        Student student = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT studentID FROM Tickets
-                            WHERE ticketID = ?
-                            """,
-                    ticketId);
-
-            if (rs.next()) {
-                student = new Student(rs.getLong("studentID"));
-            }
-
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(student);
-    }
-
-    /**
-     * Finds the Event associated with the given Ticket ID.
-     *
-     * @param ticketId the ID of the Ticket.
-     * @return an Optional containing the Event, or Optional.empty() if not
-     * found.
-     */
-    public Optional<Event> findEvent(Long ticketId) {
-        DBConnection conn = null;
-        Event event = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT eventID FROM Tickets
-                            WHERE id = ?
-                            """,
-                    ticketId);
-
-            if (rs.next()) {
-                event = new Event(rs.getLong("eventID"));
-            }
-
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(event);
-    }
-
     /**
      * Inserts a new Ticket record into the database.
      *
@@ -269,7 +178,7 @@ public class TicketMapper extends DataMapper {
         Ticket ticket = null;
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            conn = ConnectionPool.getInstance().getReadConnection();
 
             ResultSet rs = conn.execute(
                     """
@@ -303,7 +212,7 @@ public class TicketMapper extends DataMapper {
         List<Ticket> tickets = new ArrayList<>();
 
         try {
-            conn = ConnectionPool.getInstance().getConnection();
+            conn = ConnectionPool.getInstance().getReadConnection();
             ResultSet rs = conn.execute(
                     """
                             SELECT ticketID FROM Tickets WHERE rsvpID = ?
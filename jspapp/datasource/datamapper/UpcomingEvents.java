@@ -0,0 +1,222 @@
+package com.unimelb.swen90007.jspapp.datasource.datamapper;
+
+import com.unimelb.swen90007.jspapp.domain.EventSummary;
+import com.unimelb.swen90007.jspapp.metrics.Metrics;
+import com.unimelb.swen90007.jspapp.util.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Singleton in-memory index of the events that have not happened yet,
+ * ordered by date and time in concurrent skip lists, one over all events and
+ * one per club. The next events, the events before a given time and the next
+ * events of a club are found in logarithmic time without locking.
+ * <p>
+ * The index is filled and kept current by {@link EventColumns}, which passes
+ * on every row it loads, replaces or removes. Past events are evicted every
+ * "upcoming.expiryPeriodMs" milliseconds, one minute by default, so the index
+ * only holds the events that are still of interest. Queries never return an
+ * event that has passed but not been evicted yet.
+ */
+class UpcomingEvents {
+
+    private static final long EXPIRY_PERIOD_MS =
+            Math.max(1, Config.getInt("upcoming.expiryPeriodMs", 60000));
+
+    /**
+     * Singleton instance
+     */
+    private static final UpcomingEvents instance = new UpcomingEvents();
+
+    /**
+     * The position of an event in the skip lists. Events at the same time
+     * are ordered by ID.
+     */
+    private record Key(long dateTime, long id) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            if (dateTime != other.dateTime) {
+                return Long.compare(dateTime, other.dateTime);
+            }
+            return Long.compare(id, other.id);
+        }
+    }
+
+    /**
+     * An indexed event. Cancelled events are kept, so that whether an event
+     * has happened can be answered for them too, but are never listed.
+     */
+    private record Entry(Key key, long clubId, boolean cancelled, EventSummary summary) {
+    }
+
+    private final ConcurrentSkipListMap<Key, Entry> byTime = new ConcurrentSkipListMap<>();
+    private final Map<Long, ConcurrentSkipListMap<Key, Entry>> byClub = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+
+    /**
+     * Periodically evicts past events, once the index is loaded.
+     */
+    private ScheduledExecutorService expirer;
+
+    /**
+     * Get the singleton instance of this class.
+     *
+     * @return The singleton `UpcomingEvents` instance.
+     */
+    static UpcomingEvents getInstance() {
+        return instance;
+    }
+
+    private UpcomingEvents() {
+        Metrics.getInstance().gauge("jspapp_upcoming_events",
+                "Events held by the upcoming events index", "", byId::size);
+    }
+
+    /**
+     * Starts evicting past events, if not already started.
+     */
+    synchronized void start() {
+        if (expirer == null) {
+            expirer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "upcoming-events-expiry");
+                thread.setDaemon(true);
+                return thread;
+            });
+            expirer.scheduleAtFixedRate(this::expire, EXPIRY_PERIOD_MS,
+                    EXPIRY_PERIOD_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops evicting past events and empties the index.
+     */
+    synchronized void stop() {
+        if (expirer != null) {
+            expirer.shutdownNow();
+            expirer = null;
+        }
+        clear();
+    }
+
+    /**
+     * Removes every event.
+     */
+    void clear() {
+        byId.clear();
+        byTime.clear();
+        byClub.clear();
+    }
+
+    /**
+     * Adds or replaces an event. Events that have already happened are only
+     * removed.
+     *
+     * @param dateTime  the date and time of the event
+     * @param clubId    the ID of the club organizing the event
+     * @param cancelled whether the event is cancelled
+     * @param summary   the summary of the event
+     */
+    void put(long dateTime, long clubId, boolean cancelled, EventSummary summary) {
+        remove(summary.id());
+        if (dateTime < System.currentTimeMillis()) {
+            return;
+        }
+        Entry entry = new Entry(new Key(dateTime, summary.id()), clubId, cancelled, summary);
+        byId.put(summary.id(), entry);
+        byTime.put(entry.key(), entry);
+        byClub.compute(clubId, (id, events) -> {
+            if (events == null) {
+                events = new ConcurrentSkipListMap<>();
+            }
+            events.put(entry.key(), entry);
+            return events;
+        });
+    }
+
+    /**
+     * Removes an event, if indexed.
+     *
+     * @param id the ID of the event
+     */
+    void remove(long id) {
+        Entry entry = byId.get(id);
+        if (entry != null) {
+            remove(entry);
+        }
+    }
+
+    /**
+     * Returns whether an event has not happened yet.
+     *
+     * @param id the ID of the event
+     * @return whether the event is upcoming, or null if it is not indexed
+     */
+    Boolean isUpcoming(long id) {
+        Entry entry = byId.get(id);
+        if (entry == null) {
+            return null;
+        }
+        return entry.key().dateTime() >= System.currentTimeMillis();
+    }
+
+    /**
+     * Finds the next events that are not cancelled, soonest first.
+     *
+     * @param clubId the ID of the club organizing the events, or null for
+     *               any club
+     * @param to     only events before this time are returned, in
+     *               milliseconds since epoch
+     * @param limit  the maximum number of events to return
+     * @return the summaries of the events
+     */
+    List<EventSummary> find(Long clubId, long to, int limit) {
+        List<EventSummary> events = new ArrayList<>();
+        NavigableMap<Key, Entry> index = clubId == null ? byTime : byClub.get(clubId);
+        long now = System.currentTimeMillis();
+        if (index == null || to <= now) {
+            return events;
+        }
+        for (Entry entry : index.subMap(new Key(now, Long.MIN_VALUE), true,
+                new Key(to, Long.MIN_VALUE), false).values()) {
+            if (events.size() == limit) {
+                break;
+            }
+            if (!entry.cancelled()) {
+                events.add(entry.summary());
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Evicts the events that have happened.
+     */
+    private void expire() {
+        Key now = new Key(System.currentTimeMillis(), Long.MIN_VALUE);
+        for (Entry entry : byTime.headMap(now).values()) {
+            remove(entry);
+        }
+    }
+
+    /**
+     * Removes an entry, unless its event has been replaced since it was read.
+     */
+    private void remove(Entry entry) {
+        if (!byId.remove(entry.key().id(), entry)) {
+            return;
+        }
+        byTime.remove(entry.key(), entry);
+        byClub.computeIfPresent(entry.clubId(), (id, events) -> {
+            events.remove(entry.key(), entry);
+            return events.isEmpty() ? null : events;
+        });
+    }
+}
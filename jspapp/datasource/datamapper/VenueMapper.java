@@ -2,6 +2,9 @@ package com.unimelb.swen90007.jspapp.datasource.datamapper;
 
 import com.unimelb.swen90007.jspapp.datasource.ConnectionPool;
 import com.unimelb.swen90007.jspapp.datasource.DBConnection;
+import com.unimelb.swen90007.jspapp.datasource.EntityCache;
+import com.unimelb.swen90007.jspapp.datasource.EventCache;
+import com.unimelb.swen90007.jspapp.datasource.EventReadModel;
 import com.unimelb.swen90007.jspapp.domain.DomainObject;
 import com.unimelb.swen90007.jspapp.domain.Venue;
 import com.unimelb.swen90007.jspapp.domain.VenueType;
@@ -10,7 +13,6 @@ import org.apache.logging.log4j.LogManager;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Optional;
 
 /**
  * The VenueMapper class is responsible for mapping Venue objects to and from
@@ -19,104 +21,19 @@ import java.util.Optional;
 public class VenueMapper extends DataMapper {
 
     /**
-     * Finds the type of Venue by its ID.
-     *
-     * @param id the ID of the Venue.
-     * @return an Optional containing the VenueType if found, or an empty
-     * Optional if not.
+     * Venues change rarely but are read for every event shown, so their rows
+     * are cached.
      */
-    public Optional<VenueType> findType(Long id) {
-        DBConnection conn = null;
-        VenueType type = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT location FROM Venues
-                            WHERE venueID = ?
-                            """,
-                    id
-            );
+    private static final RowMapping<Venue> rows =
+            new RowMapping<>(Venue.class, "Venues", "venueID")
+                    .column("location", "type", String.class, VenueType::fromPretty)
+                    .column("address")
+                    .column("capacity")
+                    .cached(new EntityCache<>("venue", 1000, 600000));
 
-            if (rs.next()) {
-                type = VenueType.fromPretty(rs.getString("location"));
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(type);
-    }
-
-    /**
-     * Finds the capacity of a Venue by its ID.
-     *
-     * @param id the ID of the Venue.
-     * @return an Optional containing the capacity if found, or an empty
-     * Optional if not.
-     */
-    public Optional<Integer> findCapacity(Long id) {
-        DBConnection conn = null;
-        Integer capacity = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT capacity FROM Venues
-                            WHERE venueID = ?
-                            """,
-                    id
-            );
-
-            if (rs.next()) {
-                capacity = rs.getInt("capacity");
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-        return Optional.ofNullable(capacity);
-    }
-
-    /**
-     * Finds the address of a Venue by its ID.
-     *
-     * @param id the ID of the Venue.
-     * @return an Optional containing the address if found, or an empty
-     * Optional if not.
-     */
-    public Optional<String> findAddress(Long id) {
-        DBConnection conn = null;
-        String address = null;
-
-        try {
-            conn = ConnectionPool.getInstance().getConnection();
-            ResultSet rs = conn.execute(
-                    """
-                            SELECT address FROM Venues
-                            WHERE venueID = ?
-                            """,
-                    id
-            );
-
-            if (rs.next()) {
-                address = rs.getString("address");
-            }
-            rs.getStatement().close();
-        } catch (SQLException | ConnectionUnavailableException e) {
-            LogManager.getLogger().error("Unable to get database field", e);
-        } finally {
-            ConnectionPool.getInstance().releaseConnection(conn);
-        }
-
-        return Optional.ofNullable(address);
+    @Override
+    protected RowMapping<?> getRowMapping() {
+        return rows;
     }
 
     /**
@@ -171,6 +88,12 @@ public class VenueMapper extends DataMapper {
                             """,
                     venue.getType().toString(), venue.getAddress(),
                     venue.getCapacity(), venue.getId());
+
+            // Venue addresses are shown on every event held there
+            EventReadModel.refreshVenue(conn, venue.getId());
+            EventColumns.getInstance().refreshVenue(conn, venue.getId());
+            rows.invalidate(venue.getId());
+            EventCache.getInstance().invalidateAll();
         } catch (SQLException | ConnectionUnavailableException e) {
             LogManager.getLogger().error("Unable to get database field", e);
         } finally {
@@ -195,6 +118,8 @@ public class VenueMapper extends DataMapper {
                             WHERE venueID = ?
                             """,
                     obj.getId());
+            rows.invalidate(obj.getId());
+            EventCache.getInstance().invalidateAll();
         } catch (SQLException | ConnectionUnavailableException e) {
             LogManager.getLogger().error("Unable to get database field", e);
         } finally {
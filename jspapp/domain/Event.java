@@ -1,7 +1,6 @@
 package com.unimelb.swen90007.jspapp.domain;
 
 import com.unimelb.swen90007.jspapp.datasource.datamapper.DataMapper;
-import com.unimelb.swen90007.jspapp.datasource.datamapper.EventMapper;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.RsvpMapper;
 
 import java.util.List;
@@ -127,9 +126,7 @@ public class Event extends DomainObject {
      */
     public String getTitle() {
         if (title == null) {
-            ((EventMapper) DataMapper.getMapper(Event.class))
-                    .findTitle(getId())
-                    .ifPresent(title -> this.title = title);
+            DataMapper.getMapper(Event.class).load(this);
         }
         return title;
     }
@@ -150,9 +147,7 @@ public class Event extends DomainObject {
      */
     public String getDescription() {
         if (description == null) {
-            ((EventMapper) DataMapper.getMapper(Event.class))
-                    .findDescription(getId())
-                    .ifPresent(description -> this.description = description);
+            DataMapper.getMapper(Event.class).load(this);
         }
         return description;
     }
@@ -173,9 +168,7 @@ public class Event extends DomainObject {
      */
     public Integer getAttendees() {
         if (attendees == null) {
-            ((EventMapper) DataMapper.getMapper(Event.class))
-                    .findAttenders(getId())
-                    .ifPresent(attendees -> this.attendees = attendees);
+            DataMapper.getMapper(Event.class).load(this);
         }
         return attendees;
     }
@@ -196,9 +189,7 @@ public class Event extends DomainObject {
      */
     public Venue getVenue() {
         if (venue == null) {
-            ((EventMapper) DataMapper.getMapper(Event.class))
-                    .findVenue(getId())
-                    .ifPresent(venue -> this.venue = venue);
+            DataMapper.getMapper(Event.class).load(this);
         }
         return venue;
     }
@@ -219,9 +210,7 @@ public class Event extends DomainObject {
      */
     public Long getDateTime() {
         if (dateTime == null) {
-            ((EventMapper) DataMapper.getMapper(Event.class))
-                    .findDateTime(getId())
-                    .ifPresent(dateTime -> this.dateTime = dateTime);
+            DataMapper.getMapper(Event.class).load(this);
         }
         return dateTime;
     }
@@ -242,9 +231,7 @@ public class Event extends DomainObject {
      */
     public StudentClub getClub() {
         if (club == null) {
-            ((EventMapper) DataMapper.getMapper(Event.class))
-                    .findClub(getId())
-                    .ifPresent(club -> this.club = club);
+            DataMapper.getMapper(Event.class).load(this);
         }
         return club;
     }
@@ -283,9 +270,7 @@ public class Event extends DomainObject {
      */
     public Boolean getCancelled() {
         if (cancelled == null) {
-            ((EventMapper) DataMapper.getMapper(Event.class))
-                    .findCancelled(getId())
-                    .ifPresent(cancelled -> this.cancelled = cancelled);
+            DataMapper.getMapper(Event.class).load(this);
         }
         return cancelled;
     }
@@ -319,9 +304,7 @@ public class Event extends DomainObject {
      */
     public Integer getVersion() {
         if (version == null) {
-            ((EventMapper) DataMapper.getMapper(Event.class))
-                    .findVersion(getId())
-                    .ifPresent(this::setVersion);
+            DataMapper.getMapper(Event.class).load(this);
         }
         return version;
     }
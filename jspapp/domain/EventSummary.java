@@ -0,0 +1,20 @@
+package com.unimelb.swen90007.jspapp.domain;
+
+/**
+ * An immutable snapshot of an event, as shown in event listings. Summaries
+ * are read directly from the database with the name of the hosting club and
+ * the address of the venue, and unlike {@link Event} never load anything
+ * when read, so listings can be serialized as they are.
+ *
+ * @param id          the unique identifier of the event
+ * @param title       the title of the event
+ * @param dateTime    the date and time of the event, in milliseconds since
+ *                    epoch
+ * @param host        the name of the club organizing the event
+ * @param location    the address of the venue
+ * @param attenders   the number of people attending the event
+ * @param description the description of the event
+ */
+public record EventSummary(long id, String title, long dateTime, String host,
+                           String location, int attenders, String description) {
+}
@@ -1,7 +1,6 @@
 package com.unimelb.swen90007.jspapp.domain;
 
 import com.unimelb.swen90007.jspapp.datasource.datamapper.DataMapper;
-import com.unimelb.swen90007.jspapp.datasource.datamapper.FacultyAdminMapper;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.FundingApplicationMapper;
 
 import java.util.List;
@@ -46,9 +45,7 @@ public class FacultyAdmin extends Person {
     @Override
     public String getName() {
         if (name == null) {
-            ((FacultyAdminMapper) DataMapper.getMapper(FacultyAdmin.class))
-                    .findName(getId())
-                    .ifPresent(name -> this.name = name);
+            DataMapper.getMapper(FacultyAdmin.class).load(this);
         }
         return super.getName();
     }
@@ -61,9 +58,7 @@ public class FacultyAdmin extends Person {
     @Override
     public String getEmail() {
         if (email == null) {
-            ((FacultyAdminMapper) DataMapper.getMapper(FacultyAdmin.class))
-                    .findEmail(getId())
-                    .ifPresent(email -> this.email = email);
+            DataMapper.getMapper(FacultyAdmin.class).load(this);
         }
         return super.getEmail();
     }
@@ -77,9 +72,7 @@ public class FacultyAdmin extends Person {
     @Override
     public String getPassword() {
         if (password == null) {
-            ((FacultyAdminMapper) DataMapper.getMapper(FacultyAdmin.class))
-                    .findPassword(getId())
-                    .ifPresent(value -> this.password = value);
+            DataMapper.getMapper(FacultyAdmin.class).load(this);
         }
         return super.getPassword();
     }
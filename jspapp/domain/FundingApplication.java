@@ -1,8 +1,6 @@
 package com.unimelb.swen90007.jspapp.domain;
 
 import com.unimelb.swen90007.jspapp.datasource.datamapper.DataMapper;
-import com.unimelb.swen90007.jspapp.datasource.datamapper.EventMapper;
-import com.unimelb.swen90007.jspapp.datasource.datamapper.FundingApplicationMapper;
 
 /**
  * Represents a funding application submitted by a student club.
@@ -48,9 +46,7 @@ public class FundingApplication extends DomainObject {
     // Getters and setters for all fields, including the new name field
     public String getDescription() {
         if (description == null) {
-            ((FundingApplicationMapper) DataMapper.getMapper(getClass()))
-                    .findDescription(getId())
-                    .ifPresent(description -> this.description = description);
+            DataMapper.getMapper(FundingApplication.class).load(this);
         }
         return description;
     }
@@ -61,9 +57,7 @@ public class FundingApplication extends DomainObject {
 
     public double getAmount() {
         if (amount == null) {
-            ((FundingApplicationMapper) DataMapper.getMapper(getClass()))
-                    .findAmount(getId())
-                    .ifPresent(amount -> this.amount = amount);
+            DataMapper.getMapper(FundingApplication.class).load(this);
         }
         return amount;
     }
@@ -74,9 +68,7 @@ public class FundingApplication extends DomainObject {
 
     public FundingStatus getStatus() {
         if (status == null) {
-            ((FundingApplicationMapper) DataMapper.getMapper(getClass()))
-                    .findStatus(getId())
-                    .ifPresent(status -> this.status = status);
+            DataMapper.getMapper(FundingApplication.class).load(this);
         }
         return status;
     }
@@ -87,9 +79,7 @@ public class FundingApplication extends DomainObject {
 
     public StudentClub getClub() {
         if (studentClub == null) {
-            ((FundingApplicationMapper) DataMapper.getMapper(getClass()))
-                    .findStudentClub(getId())
-                    .ifPresent(studentClub -> this.studentClub = studentClub);
+            DataMapper.getMapper(FundingApplication.class).load(this);
         }
         return studentClub;
     }
@@ -100,9 +90,7 @@ public class FundingApplication extends DomainObject {
 
     public FacultyAdmin getReviewer() {
         if (reviewer == null) {
-            ((FundingApplicationMapper) DataMapper.getMapper(getClass()))
-                    .findReviewer(getId())
-                    .ifPresent(reviewer -> this.reviewer = reviewer);
+            DataMapper.getMapper(FundingApplication.class).load(this);
         }
         return reviewer;
     }
@@ -117,9 +105,7 @@ public class FundingApplication extends DomainObject {
 
     public Integer getSemester() {
         if (semester == null) {
-            ((FundingApplicationMapper) DataMapper.getMapper(getClass()))
-                    .findSemester(getId())
-                    .ifPresent(semester -> this.semester = semester);
+            DataMapper.getMapper(FundingApplication.class).load(this);
         }
         return semester;
     }
@@ -130,9 +116,7 @@ public class FundingApplication extends DomainObject {
      */
     public Integer getVersion() {
         if (version == null) {
-            ((FundingApplicationMapper) DataMapper.getMapper(FundingApplication.class))
-                    .findVersion(getId())
-                    .ifPresent(this::setVersion);
+            DataMapper.getMapper(FundingApplication.class).load(this);
         }
         return version;
     }
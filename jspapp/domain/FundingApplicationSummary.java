@@ -0,0 +1,19 @@
+package com.unimelb.swen90007.jspapp.domain;
+
+/**
+ * An immutable snapshot of a funding application, as shown in funding
+ * application listings. Unlike {@link FundingApplication}, it holds the name
+ * of the club rather than the club itself and never loads anything when
+ * read.
+ *
+ * @param id          the unique identifier of the application
+ * @param description the description of the application
+ * @param clubName    the name of the club that submitted the application
+ * @param amount      the amount requested
+ * @param status      the status of the application
+ * @param semester    the semester the application is for, or null if not set
+ */
+public record FundingApplicationSummary(long id, String description, String clubName,
+                                        double amount, FundingStatus status,
+                                        Integer semester) {
+}
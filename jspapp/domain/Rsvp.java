@@ -1,7 +1,6 @@
 package com.unimelb.swen90007.jspapp.domain;
 
 import com.unimelb.swen90007.jspapp.datasource.datamapper.DataMapper;
-import com.unimelb.swen90007.jspapp.datasource.datamapper.RsvpMapper;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.TicketMapper;
 
 import java.util.List;
@@ -86,9 +85,7 @@ public class Rsvp extends DomainObject {
      */
     public Student getStudent() {
         if (student == null) {
-            ((RsvpMapper) DataMapper.getMapper(Rsvp.class))
-                    .findStudent(getId())
-                    .ifPresent(student -> this.student = student);
+            DataMapper.getMapper(Rsvp.class).load(this);
         }
         return student;
     }
@@ -109,9 +106,7 @@ public class Rsvp extends DomainObject {
      */
     public Event getEvent() {
         if (event == null) {
-            ((RsvpMapper) DataMapper.getMapper(Rsvp.class))
-                    .findEvent(getId())
-                    .ifPresent(event -> this.event = event);
+            DataMapper.getMapper(Rsvp.class).load(this);
         }
         return event;
     }
@@ -132,9 +127,7 @@ public class Rsvp extends DomainObject {
      */
     public Boolean getCancelled() {
         if (cancelled == null) {
-            ((RsvpMapper) DataMapper.getMapper(Rsvp.class))
-                    .findCancelled(getId())
-                    .ifPresent(cancelled -> this.cancelled = cancelled);
+            DataMapper.getMapper(Rsvp.class).load(this);
         }
         return cancelled;
     }
@@ -181,6 +174,15 @@ public class Rsvp extends DomainObject {
         return tickets;
     }
 
+    /**
+     * Sets the list of tickets associated with this RSVP.
+     *
+     * @param tickets the list of tickets
+     */
+    public void setTickets(List<Ticket> tickets) {
+        this.tickets = tickets;
+    }
+
     /**
      * Adds a ticket to this RSVP.
      *
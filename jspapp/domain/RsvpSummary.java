@@ -0,0 +1,15 @@
+package com.unimelb.swen90007.jspapp.domain;
+
+import java.sql.Timestamp;
+
+/**
+ * An immutable snapshot of an RSVP, as shown in the RSVP listings of a
+ * student. Unlike {@link Rsvp}, it holds the title of the event rather than
+ * the event itself and never loads anything when read.
+ *
+ * @param rsvpId      the unique identifier of the RSVP
+ * @param eventName   the title of the event
+ * @param operateTime the time the RSVP was made
+ */
+public record RsvpSummary(long rsvpId, String eventName, Timestamp operateTime) {
+}
@@ -3,7 +3,6 @@ package com.unimelb.swen90007.jspapp.domain;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.DataMapper;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.RsvpMapper;
 import com.unimelb.swen90007.jspapp.datasource.datamapper.StudentClubMapper;
-import com.unimelb.swen90007.jspapp.datasource.datamapper.StudentMapper;
 
 import java.util.List;
 
@@ -68,9 +67,7 @@ public class Student extends Person {
     @Override
     public String getName() {
         if (name == null) {
-            ((StudentMapper) DataMapper.getMapper(Student.class))
-                    .findName(getId())
-                    .ifPresent(name -> this.name = name);
+            DataMapper.getMapper(Student.class).load(this);
         }
         return name;
     }
@@ -84,9 +81,7 @@ public class Student extends Person {
     @Override
     public String getEmail() {
         if (email == null) {
-            ((StudentMapper) DataMapper.getMapper(getClass()))
-                    .findEmail(getId())
-                    .ifPresent(email -> this.email = email);
+            DataMapper.getMapper(Student.class).load(this);
         }
         return email;
     }
@@ -100,9 +95,7 @@ public class Student extends Person {
     @Override
     public String getPassword() {
         if (password == null) {
-            ((StudentMapper) DataMapper.getMapper(StudentClub.class))
-                    .findPassword(getId())
-                    .ifPresent(password -> this.password = password);
+            DataMapper.getMapper(Student.class).load(this);
         }
         return password;
     }
@@ -58,9 +58,7 @@ public class StudentClub extends DomainObject {
      */
     public String getName() {
         if (name == null) {
-            ((StudentClubMapper) DataMapper.getMapper(StudentClub.class))
-                    .findName(getId())
-                    .ifPresent(name -> this.name = name);
+            DataMapper.getMapper(StudentClub.class).load(this);
         }
         return name;
     }
@@ -81,9 +79,7 @@ public class StudentClub extends DomainObject {
      */
     public String getDescription() {
         if (description == null) {
-            ((StudentClubMapper) DataMapper.getMapper(StudentClub.class))
-                    .findDescription(getId())
-                    .ifPresent(description -> this.description = description);
+            DataMapper.getMapper(StudentClub.class).load(this);
         }
         return description;
     }
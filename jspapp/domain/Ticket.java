@@ -1,7 +1,6 @@
 package com.unimelb.swen90007.jspapp.domain;
 
 import com.unimelb.swen90007.jspapp.datasource.datamapper.DataMapper;
-import com.unimelb.swen90007.jspapp.datasource.datamapper.TicketMapper;
 
 /**
  * Represents a ticket associated with an RSVP, a student, and an event.
@@ -58,9 +57,7 @@ public class Ticket extends DomainObject {
      */
     public Rsvp getRsvp() {
         if (rsvp == null) {
-            ((TicketMapper) DataMapper.getMapper(Ticket.class))
-                    .findRsvp(getId())
-                    .ifPresent(rsvp -> this.rsvp = rsvp);
+            DataMapper.getMapper(Ticket.class).load(this);
         }
         return rsvp;
     }
@@ -82,9 +79,7 @@ public class Ticket extends DomainObject {
      */
     public Student getStudent() {
         if (student == null) {
-            ((TicketMapper) DataMapper.getMapper(Ticket.class))
-                    .findStudent(getId())
-                    .ifPresent(student -> this.student = student);
+            DataMapper.getMapper(Ticket.class).load(this);
         }
         return student;
     }
@@ -106,9 +101,7 @@ public class Ticket extends DomainObject {
      */
     public Event getEvent() {
         if (event == null) {
-            ((TicketMapper) DataMapper.getMapper(Ticket.class))
-                    .findEvent(getId())
-                    .ifPresent(event -> this.event = event);
+            DataMapper.getMapper(Ticket.class).load(this);
         }
         return event;
     }
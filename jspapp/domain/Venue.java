@@ -1,7 +1,6 @@
 package com.unimelb.swen90007.jspapp.domain;
 
 import com.unimelb.swen90007.jspapp.datasource.datamapper.DataMapper;
-import com.unimelb.swen90007.jspapp.datasource.datamapper.VenueMapper;
 
 import java.util.Optional;
 
@@ -76,9 +75,7 @@ public class Venue extends DomainObject {
      */
     public VenueType getType() {
         if (type == null) {
-            ((VenueMapper) DataMapper.getMapper(Venue.class))
-                    .findType(getId())
-                    .ifPresent(type -> this.type = type);
+            DataMapper.getMapper(Venue.class).load(this);
         }
         return type;
     }
@@ -99,9 +96,7 @@ public class Venue extends DomainObject {
      */
     public Integer getCapacity() {
         if (capacity == null) {
-            ((VenueMapper) DataMapper.getMapper(Venue.class))
-                    .findCapacity(getId())
-                    .ifPresent(capacity -> this.capacity = capacity);
+            DataMapper.getMapper(Venue.class).load(this);
         }
         return capacity;
     }
@@ -122,9 +117,7 @@ public class Venue extends DomainObject {
      */
     public String getAddress() {
         if (address == null) {
-            ((VenueMapper) DataMapper.getMapper(Venue.class))
-                    .findAddress(getId())
-                    .ifPresent(address -> this.address = address);
+            DataMapper.getMapper(Venue.class).load(this);
         }
         return address;
     }
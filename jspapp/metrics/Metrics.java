@@ -0,0 +1,200 @@
+package com.unimelb.swen90007.jspapp.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Singleton registry of the application metrics, written out in the
+ * Prometheus text exposition format by {@link #write(StringBuilder)}.
+ * <p>
+ * Metrics are identified by a name and a label string built with
+ * {@link #labels(String...)}, and are created the first time they are
+ * requested. Histograms are written as summaries with the 0.5, 0.95 and 0.99
+ * quantiles, along with a separate "_max" gauge.
+ */
+public class Metrics {
+
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    /**
+     * Singleton instance
+     */
+    private static final Metrics instance = new Metrics();
+
+    /**
+     * Metric families, sorted by name.
+     */
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * A metric name with its help text and the metric of each label string.
+     */
+    private static class Family {
+        private final String type;
+        private final String help;
+        private final double scale;
+        private final Map<String, Object> metrics = new ConcurrentHashMap<>();
+
+        private Family(String type, String help, double scale) {
+            this.type = type;
+            this.help = help;
+            this.scale = scale;
+        }
+    }
+
+    /**
+     * Get the singleton instance of this class.
+     *
+     * @return The singleton `Metrics` instance.
+     */
+    public static Metrics getInstance() {
+        return instance;
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * Builds a label string from names and values, escaping the values.
+     *
+     * @param namesAndValues alternating label names and values
+     * @return the label string
+     */
+    public static String labels(String... namesAndValues) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(namesAndValues[i]).append("=\"")
+                    .append(namesAndValues[i + 1].replace("\\", "\\\\")
+                            .replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a counter, creating it if needed.
+     *
+     * @param name   the metric name
+     * @param help   the description of the metric
+     * @param labels the label string, possibly empty
+     * @return the counter
+     */
+    public LongAdder counter(String name, String help, String labels) {
+        return (LongAdder) family(name, "counter", help, 1)
+                .metrics.computeIfAbsent(labels, l -> new LongAdder());
+    }
+
+    /**
+     * Returns a histogram, creating it if needed.
+     *
+     * @param name   the metric name
+     * @param help   the description of the metric
+     * @param labels the label string, possibly empty
+     * @param scale  the number of recorded units in one unit of the metric,
+     *               e.g. 1e9 to record nanoseconds in a metric in seconds
+     * @return the histogram
+     */
+    public Histogram histogram(String name, String help, String labels, double scale) {
+        return (Histogram) family(name, "summary", help, scale)
+                .metrics.computeIfAbsent(labels, l -> new Histogram());
+    }
+
+    /**
+     * Registers a gauge, whose value is read when the metrics are written.
+     *
+     * @param name     the metric name
+     * @param help     the description of the metric
+     * @param labels   the label string, possibly empty
+     * @param supplier the source of the value
+     */
+    public void gauge(String name, String help, String labels, DoubleSupplier supplier) {
+        family(name, "gauge", help, 1).metrics.put(labels, supplier);
+    }
+
+    /**
+     * Returns the number of label strings of a metric.
+     *
+     * @param name the metric name
+     * @return the number of label strings, 0 if the metric does not exist
+     */
+    public int size(String name) {
+        Family family = families.get(name);
+        return family == null ? 0 : family.metrics.size();
+    }
+
+    /**
+     * Returns whether a metric has been created for a label string.
+     *
+     * @param name   the metric name
+     * @param labels the label string
+     * @return true if the metric exists
+     */
+    public boolean contains(String name, String labels) {
+        Family family = families.get(name);
+        return family != null && family.metrics.containsKey(labels);
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format.
+     *
+     * @param out the buffer to write to
+     */
+    public void write(StringBuilder out) {
+        families.forEach((name, family) -> {
+            writeHeader(out, name, family.type, family.help);
+            new ConcurrentSkipListMap<>(family.metrics).forEach((labels, metric) -> {
+                if (metric instanceof LongAdder counter) {
+                    writeSample(out, name, labels, counter.sum());
+                } else if (metric instanceof DoubleSupplier gauge) {
+                    writeSample(out, name, labels, gauge.getAsDouble());
+                } else if (metric instanceof Histogram histogram) {
+                    for (double quantile : QUANTILES) {
+                        String quantileLabels = labels(
+                                "quantile", String.valueOf(quantile));
+                        writeSample(out, name, labels.isEmpty()
+                                        ? quantileLabels : labels + "," + quantileLabels,
+                                histogram.getQuantile(quantile) / family.scale);
+                    }
+                    writeSample(out, name + "_sum", labels,
+                            histogram.getSum() / family.scale);
+                    writeSample(out, name + "_count", labels, histogram.getCount());
+                }
+            });
+
+            if (family.type.equals("summary")) {
+                writeHeader(out, name + "_max", "gauge", "Maximum of " + name);
+                new ConcurrentSkipListMap<>(family.metrics).forEach((labels, metric) ->
+                        writeSample(out, name + "_max", labels,
+                                ((Histogram) metric).getMax() / family.scale));
+            }
+        });
+    }
+
+    private Family family(String name, String type, String help, double scale) {
+        Family family = families.computeIfAbsent(name, n -> new Family(type, help, scale));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name
+                    + " is a " + family.type + ", not a " + type);
+        }
+        return family;
+    }
+
+    private static void writeHeader(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void writeSample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+}
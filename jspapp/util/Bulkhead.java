@@ -0,0 +1,96 @@
+package com.unimelb.swen90007.jspapp.util;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how many requests of one group, e.g. searches, can use the database
+ * at the same time, so that a burst in one group cannot hold every
+ * connection and starve the others. Requests of a priority group may also use
+ * the connections that the pool keeps in reserve.
+ */
+public class Bulkhead {
+
+    /**
+     * Thread-local variable holding the bulkhead entered by the current
+     * request.
+     */
+    private static final ThreadLocal<Bulkhead> current = new ThreadLocal<>();
+
+    private final String name;
+    private final Semaphore permits;
+    private final long maxWaitMillis;
+    private final boolean priority;
+
+    /**
+     * Construct a new Bulkhead.
+     *
+     * @param name          the name of the group in logs and metrics
+     * @param permits       how many requests of the group can run at once
+     * @param maxWaitMillis how long a request waits for a permit before it is
+     *                      rejected
+     * @param priority      whether requests of the group may use the reserved
+     *                      connections of the pool
+     */
+    public Bulkhead(String name, int permits, long maxWaitMillis, boolean priority) {
+        this.name = name;
+        this.permits = new Semaphore(Math.max(1, permits), true);
+        this.maxWaitMillis = maxWaitMillis;
+        this.priority = priority;
+    }
+
+    /**
+     * Takes a permit for the current thread, waiting up to the maximum wait
+     * or until the deadline of the request for one to be released.
+     *
+     * @return whether a permit was taken, in which case {@link #exit()} must
+     * be called once the request has been handled
+     */
+    public boolean enter() {
+        try {
+            long timeout = Math.min(maxWaitMillis, Deadline.remainingMillis());
+            if (!permits.tryAcquire(Math.max(0, timeout), TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        current.set(this);
+        return true;
+    }
+
+    /**
+     * Releases the permit taken by the current thread.
+     */
+    public void exit() {
+        current.remove();
+        permits.release();
+    }
+
+    /**
+     * Returns whether the current thread may use the reserved connections of
+     * the pool. Work outside of a bulkhead, such as the startup of the
+     * application, always may.
+     *
+     * @return whether the current thread has priority
+     */
+    public static boolean isPriority() {
+        Bulkhead bulkhead = current.get();
+        return bulkhead == null || bulkhead.priority;
+    }
+
+    /**
+     * @return the name of the group
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of permits not currently taken
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+}
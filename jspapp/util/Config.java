@@ -0,0 +1,105 @@
+package com.unimelb.swen90007.jspapp.util;
+
+import org.apache.logging.log4j.LogManager;
+
+import java.util.Locale;
+
+/**
+ * Reads application settings. A setting named "query.debug" is taken from the
+ * system property "jspapp.query.debug", then from the environment variable
+ * "JSPAPP_QUERY_DEBUG", and otherwise falls back to the given default.
+ * <p>
+ * The "profile" setting selects a set of defaults. The "local" profile points
+ * the datasource at a local database and creates the schema at startup. Other
+ * profiles have no database defaults, so "db.url", "db.user" and
+ * "db.password" must be set.
+ */
+public class Config {
+
+    private Config() {
+    }
+
+    /**
+     * Returns a string setting.
+     *
+     * @param name         the name of the setting
+     * @param defaultValue the value to use if the setting is not set
+     * @return the value of the setting
+     */
+    public static String get(String name, String defaultValue) {
+        String value = System.getProperty("jspapp." + name);
+        if (value == null) {
+            value = System.getenv("JSPAPP_"
+                    + name.replace('.', '_').toUpperCase(Locale.ROOT));
+        }
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Returns a string setting that has no default.
+     *
+     * @param name the name of the setting
+     * @return the value of the setting
+     * @throws IllegalStateException if the setting is not set
+     */
+    public static String require(String name) {
+        String value = get(name, null);
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("Missing setting " + name
+                    + ", set the system property jspapp." + name
+                    + " or the environment variable JSPAPP_"
+                    + name.replace('.', '_').toUpperCase(Locale.ROOT));
+        }
+        return value;
+    }
+
+    /**
+     * Returns the active profile, "default" unless set.
+     *
+     * @return the name of the profile
+     */
+    public static String getProfile() {
+        return get("profile", "default");
+    }
+
+    /**
+     * @return whether the "local" profile is active
+     */
+    public static boolean isLocalProfile() {
+        return getProfile().equals("local");
+    }
+
+    /**
+     * Returns an integer setting, falling back to the default if the setting
+     * is not a number.
+     *
+     * @param name         the name of the setting
+     * @param defaultValue the value to use if the setting is not set
+     * @return the value of the setting
+     */
+    public static int getInt(String name, int defaultValue) {
+        String value = get(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            LogManager.getLogger().warn("Ignoring invalid setting " + name
+                    + "=" + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns a boolean setting.
+     *
+     * @param name         the name of the setting
+     * @param defaultValue the value to use if the setting is not set
+     * @return the value of the setting
+     */
+    public static boolean getBoolean(String name, boolean defaultValue) {
+        String value = get(name, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+}
@@ -0,0 +1,62 @@
+package com.unimelb.swen90007.jspapp.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque cursors used for keyset pagination. A cursor
+ * holds the sort key of the last row of a page, and the next page starts
+ * strictly after it.
+ */
+public class Cursor {
+    private static final Base64.Encoder encoder =
+            Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+    /**
+     * Encodes a sort key into an opaque cursor.
+     *
+     * @param key the components of the sort key
+     * @return the cursor
+     */
+    public static String encode(long... key) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < key.length; i++) {
+            if (i > 0) sb.append(':');
+            sb.append(key[i]);
+        }
+        return encoder.encodeToString(
+                sb.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a cursor created by {@link #encode(long...)}.
+     *
+     * @param cursor the cursor
+     * @param length the expected number of components in the sort key
+     * @return the components of the sort key
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static long[] decode(String cursor, int length) {
+        String[] parts;
+        try {
+            parts = new String(decoder.decode(cursor),
+                    StandardCharsets.US_ASCII).split(":");
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        if (parts.length != length) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+
+        long[] key = new long[length];
+        for (int i = 0; i < length; i++) {
+            try {
+                key[i] = Long.parseLong(parts[i]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed cursor", e);
+            }
+        }
+        return key;
+    }
+}
@@ -0,0 +1,78 @@
+package com.unimelb.swen90007.jspapp.util;
+
+/**
+ * The time by which the request handled by the current thread must be
+ * finished. Database work checks the remaining time before starting and
+ * limits how long it waits to it, so that a request that cannot finish in
+ * time fails fast instead of holding a thread and a connection.
+ */
+public class Deadline {
+
+    /**
+     * Thread-local variable holding the deadline of the current request.
+     */
+    private static final ThreadLocal<Deadline> current = new ThreadLocal<>();
+
+    /**
+     * The deadline, as returned by System.nanoTime().
+     */
+    private final long deadlineNanos;
+
+    /**
+     * Whether some work was cut short because of the deadline.
+     */
+    private boolean exceeded;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Sets the deadline of the current thread.
+     *
+     * @param timeoutMillis the time allowed from now, in milliseconds
+     */
+    public static void start(long timeoutMillis) {
+        current.set(new Deadline(System.nanoTime() + timeoutMillis * 1_000_000));
+    }
+
+    /**
+     * Removes the deadline of the current thread.
+     */
+    public static void clear() {
+        current.remove();
+    }
+
+    /**
+     * Returns the time left before the deadline of the current thread.
+     *
+     * @return the remaining time in milliseconds, which is negative once the
+     * deadline has passed, or Long.MAX_VALUE if there is no deadline
+     */
+    public static long remainingMillis() {
+        Deadline deadline = current.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return (deadline.deadlineNanos - System.nanoTime()) / 1_000_000;
+    }
+
+    /**
+     * Records that some work of the current thread was cut short, because of
+     * its deadline or because it waited too long for a connection.
+     */
+    public static void markExceeded() {
+        Deadline deadline = current.get();
+        if (deadline != null) {
+            deadline.exceeded = true;
+        }
+    }
+
+    /**
+     * @return whether some work of the current thread was cut short
+     */
+    public static boolean isExceeded() {
+        Deadline deadline = current.get();
+        return deadline != null && deadline.exceeded;
+    }
+}
@@ -0,0 +1,83 @@
+package com.unimelb.swen90007.jspapp.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Limits how often each client can make a request, allowing short bursts.
+ * This is the token bucket expressed as the generic cell rate algorithm: each
+ * key has a theoretical arrival time, which every accepted request pushes
+ * back by the interval between requests, and a request is rejected if that
+ * time is further ahead than the burst allows.
+ * <p>
+ * Keys are hashed onto a fixed array of cells updated with compare-and-set,
+ * so the limiter takes no lock and uses the same memory however many clients
+ * there are. Keys sharing a cell share a budget, which can only make the
+ * limit stricter.
+ */
+public class RateLimiter {
+
+    /**
+     * Origin of the times stored in the cells, so that they are positive.
+     */
+    private static final long ORIGIN = System.nanoTime() - 1;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    /**
+     * Time between requests at the sustained rate, in nanoseconds.
+     */
+    private final long interval;
+
+    /**
+     * How far ahead the theoretical arrival time can be, in nanoseconds.
+     */
+    private final long tolerance;
+
+    /**
+     * Construct a new RateLimiter.
+     *
+     * @param perMinute the sustained number of requests allowed per minute
+     * @param burst     the number of requests allowed at once
+     * @param cells     the number of cells, rounded up to a power of two
+     */
+    public RateLimiter(int perMinute, int burst, int cells) {
+        int size = Integer.highestOneBit(Math.max(1, cells - 1)) << 1;
+        this.cells = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.interval = 60_000_000_000L / Math.max(1, perMinute);
+        this.tolerance = interval * (Math.max(1, burst) - 1);
+    }
+
+    /**
+     * Records a request for the given key if it is within the limit.
+     *
+     * @param key identifies the client
+     * @return 0 if the request is allowed, otherwise how long to wait before
+     * the next request would be, in nanoseconds
+     */
+    public long acquire(String key) {
+        int cell = spread(key.hashCode()) & mask;
+        long now = System.nanoTime() - ORIGIN;
+        while (true) {
+            long stored = cells.get(cell);
+            long arrival = Math.max(stored, now);
+            long ahead = arrival - now;
+            if (ahead > tolerance) {
+                return ahead - tolerance;
+            }
+            if (cells.compareAndSet(cell, stored, arrival + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Mixes the bits of a hash code, since string hash codes of similar keys
+     * such as IP addresses differ mostly in their low bits.
+     */
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}